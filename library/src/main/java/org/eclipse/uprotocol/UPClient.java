@@ -32,7 +32,6 @@ import static org.eclipse.uprotocol.common.util.UStatusUtils.checkNotNull;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.isOk;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.toStatus;
 import static org.eclipse.uprotocol.common.util.log.Formatter.join;
-import static org.eclipse.uprotocol.common.util.log.Formatter.stringify;
 import static org.eclipse.uprotocol.common.util.log.Formatter.tag;
 import static org.eclipse.uprotocol.transport.validate.UAttributesValidator.getValidator;
 import static org.eclipse.uprotocol.uri.validator.UriValidator.isEmpty;
@@ -46,8 +45,8 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageItemInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
+import android.os.BadParcelableException;
 import android.os.Handler;
-import android.util.ArraySet;
 import android.util.Log;
 
 import androidx.annotation.GuardedBy;
@@ -58,9 +57,18 @@ import androidx.annotation.VisibleForTesting;
 import org.eclipse.uprotocol.client.BuildConfig;
 import org.eclipse.uprotocol.common.UStatusException;
 import org.eclipse.uprotocol.common.util.log.Key;
+import org.eclipse.uprotocol.common.util.log.LogBuilder;
 import org.eclipse.uprotocol.core.ubus.ConnectionCallback;
+import org.eclipse.uprotocol.core.ubus.ParcelableListener;
+import org.eclipse.uprotocol.core.ubus.TopicTraffic;
 import org.eclipse.uprotocol.core.ubus.UBusManager;
+import org.eclipse.uprotocol.internal.ConcurrentUuidMap;
 import org.eclipse.uprotocol.internal.HandlerExecutor;
+import org.eclipse.uprotocol.internal.LatencyHistogram;
+import org.eclipse.uprotocol.internal.MessageTrace;
+import org.eclipse.uprotocol.internal.SerialExecutor;
+import org.eclipse.uprotocol.internal.SerialExecutor.DropListener;
+import org.eclipse.uprotocol.internal.TimeoutScheduler;
 import org.eclipse.uprotocol.rpc.RpcClient;
 import org.eclipse.uprotocol.transport.UListener;
 import org.eclipse.uprotocol.transport.UTransport;
@@ -72,23 +80,33 @@ import org.eclipse.uprotocol.v1.UAttributes;
 import org.eclipse.uprotocol.v1.UCode;
 import org.eclipse.uprotocol.v1.UEntity;
 import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UMessageType;
 import org.eclipse.uprotocol.v1.UPayload;
 import org.eclipse.uprotocol.v1.UPriority;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUID;
 import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.internal.ParcelableUMessage;
 import org.eclipse.uprotocol.validation.ValidationResult;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 /**
@@ -129,30 +147,73 @@ public final class UPClient implements UTransport, RpcClient {
      */
     public static final String META_DATA_ENTITY_ID = "uprotocol.entity.id";
 
+    /**
+     * The flag to register a topic listener in conflating mode: if several messages of the topic
+     * arrive before the listener is called, only the latest one is delivered.
+     */
+    public static final int FLAG_CONFLATE = 0x00000001;
+
+    /**
+     * The flag to register a topic listener without delivering it the last message of the topic,
+     * which is otherwise delivered if the topic already has other listeners.
+     */
+    public static final int FLAG_SKIP_LAST_MESSAGE = 0x00000002;
+
+    private static final int TOPIC_FLAGS = FLAG_CONFLATE | FLAG_SKIP_LAST_MESSAGE;
+
     private static final String MESSAGE_RECEIVED = "Message received";
     private static final String MESSAGE_DROPPED = "Message dropped";
+    private static final long DISPATCH_THREAD_KEEP_ALIVE_SEC = 30;
+    private static final long TIMEOUT_TICK_MS = 10;
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private record DeliveryKey(@NonNull UUri topic, @NonNull UListener listener) {}
+
+    // Identifies a queued request, which is answered if it is dropped and never replaced by another one
+    private record RequestKey(@NonNull UAttributes attributes) {}
 
     private final UUri mUri;
     private final UUri mResponseUri;
     private final UBusManager mUBusManager;
     private final Executor mCallbackExecutor;
     private final ServiceLifecycleListener mServiceLifecycleListener;
+    private final Options mOptions;
+    private final MessageTrace mTrace;
+    private final Executor mDispatchExecutor;
+    private final Object mDispatchPoolLock = new Object();
+    @GuardedBy("mDispatchPoolLock")
+    private ThreadPoolExecutor mDispatchPool;
+    private final SerialExecutor[] mDispatchQueues;
+    private final Map<UUri, LongAdder> mDroppedMessages = new ConcurrentHashMap<>();
+    private final LongAdder mSentCount = new LongAdder();
+    private final LongAdder mSendFailureCount = new LongAdder();
+    private final LongAdder mReceivedCount = new LongAdder();
+    private final LongAdder[] mDroppedCounts = Stream.generate(LongAdder::new)
+            .limit(Metrics.DROP_REASON_COUNT).toArray(LongAdder[]::new);
+    private final LongAdder mRpcSuccessCount = new LongAdder();
+    private final LongAdder mRpcFailureCount = new LongAdder();
+    private final LongAdder mRpcTimeoutCount = new LongAdder();
+    private final LatencyHistogram mRpcLatency = new LatencyHistogram();
+    private final LatencyHistogram mQueueingDelay = new LatencyHistogram();
 
-    private final ConcurrentHashMap<UUID, CompletableFuture<UMessage>> mRequests = new ConcurrentHashMap<>();
+    private final ConcurrentUuidMap<CompletableFuture<UMessage>> mRequests = new ConcurrentUuidMap<>();
+    private final TimeoutScheduler mRequestTimeouts;
     private final Object mRegistrationLock = new Object();
-    @GuardedBy("mRegistrationLock")
-    private final Map<UUri, Set<UListener>> mGenericListeners = new HashMap<>();
-    @GuardedBy("mRegistrationLock")
-    private final Map<UUri, UListener> mRequestListeners = new HashMap<>();
+    // Modified only while holding mRegistrationLock, read without locking when dispatching messages
+    private final Map<UUri, UListener[]> mGenericListeners = new ConcurrentHashMap<>();
+    private final Map<UUri, UListener> mRequestListeners = new ConcurrentHashMap<>();
     @GuardedBy("mRegistrationLock")
     private boolean mRegistrationExpired;
 
+    private final AtomicInteger mConnectionGeneration = new AtomicInteger();
+
     private final String mTag;
     private boolean mVerboseLoggable;
 
     private final ConnectionCallback mConnectionCallback = new ConnectionCallback() {
         @Override
         public void onConnected() {
+            mConnectionGeneration.incrementAndGet();
             mCallbackExecutor.execute(() -> {
                 renewRegistration();
                 mServiceLifecycleListener.onLifecycleChanged(UPClient.this, true);
@@ -161,6 +222,7 @@ public final class UPClient implements UTransport, RpcClient {
 
         @Override
         public void onDisconnected() {
+            mConnectionGeneration.incrementAndGet();
             mCallbackExecutor.execute(() -> {
                 release();
                 mServiceLifecycleListener.onLifecycleChanged(UPClient.this, false);
@@ -169,6 +231,7 @@ public final class UPClient implements UTransport, RpcClient {
 
         @Override
         public void onConnectionInterrupted() {
+            mConnectionGeneration.incrementAndGet();
             mCallbackExecutor.execute(() -> {
                 setRegistrationExpired();
                 mServiceLifecycleListener.onLifecycleChanged(UPClient.this, false);
@@ -176,7 +239,24 @@ public final class UPClient implements UTransport, RpcClient {
         }
     };
 
-    private final UListener mListener = this::handleMessage;
+    private final UListener mListener = new ParcelableListener() {
+        @Override
+        public void onReceive(@NonNull UMessage message) {
+            handleMessage(new ParcelableUMessage(message));
+        }
+
+        @Override
+        public void onReceiveBatch(@NonNull List<UMessage> messages) {
+            final List<ParcelableUMessage> parcels = new ArrayList<>(messages.size());
+            messages.forEach(message -> parcels.add(new ParcelableUMessage(message)));
+            handleMessages(parcels);
+        }
+
+        @Override
+        public void onReceiveParcels(@NonNull List<ParcelableUMessage> messages) {
+            handleMessages(messages);
+        }
+    };
 
     /**
      * The callback to notify the lifecycle of the uBus.
@@ -197,9 +277,454 @@ public final class UPClient implements UTransport, RpcClient {
         void onLifecycleChanged(@NonNull UPClient client, boolean ready);
     }
 
+    /**
+     * Options to configure how a {@link UPClient} dispatches received messages to listeners.
+     *
+     * <p>By default, all callbacks execute on a single executor given at creation time, so a slow
+     * listener delays every other one. With dispatch lanes, messages are dispatched on a bounded
+     * pool of worker threads instead: callbacks within the same lane are executed in order, while
+     * different lanes run in parallel.
+     */
+    public static final class Options {
+        /**
+         * Assign a lane per topic (or per method for requests), so messages of a topic are
+         * delivered in order.
+         */
+        public static final int DISPATCH_BY_TOPIC = 0;
+
+        /**
+         * Assign a lane per listener, so callbacks of a listener are never executed concurrently.
+         */
+        public static final int DISPATCH_BY_LISTENER = 1;
+
+        /**
+         * Drop the oldest pending message to make room for a new one.
+         */
+        public static final int OVERFLOW_DROP_OLDEST = SerialExecutor.OVERFLOW_DROP_OLDEST;
+
+        /**
+         * Drop a new message if there is no room for it.
+         */
+        public static final int OVERFLOW_DROP_NEWEST = SerialExecutor.OVERFLOW_DROP_NEWEST;
+
+        /**
+         * Replace a pending message of the same topic with a new one, otherwise drop the oldest
+         * pending message if there is no room.
+         */
+        public static final int OVERFLOW_KEEP_LATEST = SerialExecutor.OVERFLOW_KEEP_LATEST;
+
+        /**
+         * Block a delivering binder thread until there is room for a new message.
+         *
+         * <p>This is unsafe if a listener waits, directly or not, for a message delivered to this client,
+         * for example by sending a message or invoking a method from a callback: lanes share a bounded pool
+         * of threads, so a binder thread blocked on a full lane may wait for a lane that waits for it in turn.
+         */
+        public static final int OVERFLOW_BLOCK = SerialExecutor.OVERFLOW_BLOCK;
+
+        /**
+         * The default number of message events kept in memory: tracing is disabled unless a capacity is set.
+         */
+        public static final int DEFAULT_TRACE_CAPACITY = 0;
+
+        /**
+         * Options that dispatch all messages on the callback executor without limiting pending messages.
+         */
+        public static final Options DEFAULT = new Builder().build();
+
+        private final int mDispatchLanes;
+        private final int mDispatchMode;
+        private final int mQueueCapacity;
+        private final int mOverflowPolicy;
+        private final int mTraceCapacity;
+
+        private Options(@NonNull Builder builder) {
+            mDispatchLanes = builder.mDispatchLanes;
+            mDispatchMode = builder.mDispatchMode;
+            mQueueCapacity = builder.mQueueCapacity;
+            mOverflowPolicy = builder.mOverflowPolicy;
+            mTraceCapacity = builder.mTraceCapacity;
+        }
+
+        /**
+         * Get the number of dispatch lanes.
+         *
+         * @return The number of dispatch lanes, or 0 if messages are dispatched on the callback executor.
+         */
+        public int getDispatchLanes() {
+            return mDispatchLanes;
+        }
+
+        /**
+         * Get how messages are assigned to dispatch lanes.
+         *
+         * @return {@link #DISPATCH_BY_TOPIC} or {@link #DISPATCH_BY_LISTENER}.
+         */
+        public int getDispatchMode() {
+            return mDispatchMode;
+        }
+
+        /**
+         * Get the maximum number of received messages pending dispatch.
+         *
+         * @return The capacity of each dispatch queue, or 0 if it is not limited.
+         */
+        public int getQueueCapacity() {
+            return mQueueCapacity;
+        }
+
+        /**
+         * Get what happens to a received message when its dispatch queue is full.
+         *
+         * @return One of <code>OVERFLOW_*</code> policies.
+         */
+        public int getOverflowPolicy() {
+            return mOverflowPolicy;
+        }
+
+        /**
+         * Get the number of message events kept in memory for {@link UPClient#dumpTrace(PrintWriter)}.
+         *
+         * @return The capacity of the trace, or 0 if tracing is disabled.
+         */
+        public int getTraceCapacity() {
+            return mTraceCapacity;
+        }
+
+        /**
+         * The builder of {@link Options}.
+         */
+        public static final class Builder {
+            private int mDispatchLanes;
+            private int mDispatchMode = DISPATCH_BY_TOPIC;
+            private int mQueueCapacity;
+            private int mOverflowPolicy = OVERFLOW_DROP_OLDEST;
+            private int mTraceCapacity = DEFAULT_TRACE_CAPACITY;
+
+            /**
+             * Set the number of dispatch lanes.
+             *
+             * <p>Worker threads are limited by the number of available processors and are released
+             * when idle.
+             *
+             * @param lanes The number of lanes, or 0 to dispatch messages on the callback executor.
+             * @return This builder.
+             */
+            public @NonNull Builder setDispatchLanes(int lanes) {
+                if (lanes < 0) {
+                    throw new IllegalArgumentException("Negative number of lanes");
+                }
+                mDispatchLanes = lanes;
+                return this;
+            }
+
+            /**
+             * Set how messages are assigned to dispatch lanes.
+             *
+             * @param mode {@link #DISPATCH_BY_TOPIC} or {@link #DISPATCH_BY_LISTENER}.
+             * @return This builder.
+             */
+            public @NonNull Builder setDispatchMode(int mode) {
+                if (mode != DISPATCH_BY_TOPIC && mode != DISPATCH_BY_LISTENER) {
+                    throw new IllegalArgumentException("Unknown dispatch mode " + mode);
+                }
+                mDispatchMode = mode;
+                return this;
+            }
+
+            /**
+             * Set the maximum number of received messages pending dispatch.
+             *
+             * <p>Each dispatch lane, or the callback executor if lanes are not used, gets a queue of
+             * this capacity. Dropped messages are counted per topic,
+             * see {@link UPClient#getDroppedMessageCount(UUri)}.
+             *
+             * @param capacity The capacity of each dispatch queue, or 0 to not limit it.
+             * @return This builder.
+             */
+            public @NonNull Builder setQueueCapacity(int capacity) {
+                if (capacity < 0) {
+                    throw new IllegalArgumentException("Negative capacity");
+                }
+                mQueueCapacity = capacity;
+                return this;
+            }
+
+            /**
+             * Set what happens to a received message when its dispatch queue is full.
+             *
+             * <p>A dropped request is answered with a {@link UCode#RESOURCE_EXHAUSTED} response, so the caller
+             * does not wait for its timeout. Requests are never replaced by {@link #OVERFLOW_KEEP_LATEST}.
+             *
+             * @param policy One of <code>OVERFLOW_*</code> policies.
+             * @return This builder.
+             */
+            public @NonNull Builder setOverflowPolicy(int policy) {
+                if (policy < OVERFLOW_DROP_OLDEST || policy > OVERFLOW_BLOCK) {
+                    throw new IllegalArgumentException("Unknown overflow policy " + policy);
+                }
+                mOverflowPolicy = policy;
+                return this;
+            }
+
+            /**
+             * Set the number of message events kept in memory for {@link UPClient#dumpTrace(PrintWriter)}.
+             *
+             * <p>Sent, received and dropped messages, and completed RPC calls are recorded in a binary
+             * ring buffer, the oldest events are overwritten. Tracing is disabled by default, since each
+             * message then costs an extra record.
+             *
+             * @param capacity The capacity of the trace, or 0 to disable tracing.
+             * @return This builder.
+             */
+            public @NonNull Builder setTraceCapacity(int capacity) {
+                if (capacity < 0) {
+                    throw new IllegalArgumentException("Negative capacity");
+                }
+                mTraceCapacity = capacity;
+                return this;
+            }
+
+            public @NonNull Options build() {
+                return new Options(this);
+            }
+        }
+    }
+
+    /**
+     * A method invocation to be passed to {@link #invokeMethods(List)}.
+     */
+    public static final class RpcCall {
+        private final UUri mMethodUri;
+        private final UPayload mPayload;
+        private final CallOptions mOptions;
+
+        /**
+         * Create a method invocation.
+         *
+         * @param methodUri      A {@link UUri} associated with a method.
+         * @param requestPayload A {@link UPayload} to be supplied with a request.
+         * @param options        {@link CallOptions} containing various invocation parameters.
+         */
+        public RpcCall(@NonNull UUri methodUri, @NonNull UPayload requestPayload, @NonNull CallOptions options) {
+            mMethodUri = methodUri;
+            mPayload = requestPayload;
+            mOptions = options;
+        }
+
+        public @NonNull UUri getMethodUri() {
+            return mMethodUri;
+        }
+
+        public @NonNull UPayload getPayload() {
+            return mPayload;
+        }
+
+        public @NonNull CallOptions getOptions() {
+            return mOptions;
+        }
+    }
+
+    /**
+     * A snapshot of metrics of a {@link UPClient}, see {@link #getMetrics()}.
+     *
+     * <p>Counters are collected without locking, so a snapshot taken while messages are in flight
+     * may be slightly inconsistent across counters.
+     */
+    public static final class Metrics {
+        /** A received message failed validation. */
+        public static final int DROP_REASON_INVALID = MessageTrace.REASON_INVALID;
+        /** A received message expired before it could be dispatched. */
+        public static final int DROP_REASON_EXPIRED = MessageTrace.REASON_EXPIRED;
+        /** A received message was sent to another uE. */
+        public static final int DROP_REASON_WRONG_SINK = MessageTrace.REASON_WRONG_SINK;
+        /** A received message has an unknown type. */
+        public static final int DROP_REASON_UNKNOWN_TYPE = MessageTrace.REASON_UNKNOWN_TYPE;
+        /** No listener was registered for a received message. */
+        public static final int DROP_REASON_NO_LISTENER = MessageTrace.REASON_NO_LISTENER;
+        /** A dispatch queue was full. */
+        public static final int DROP_REASON_QUEUE_FULL = MessageTrace.REASON_QUEUE_FULL;
+        /** A received message could not be parsed. */
+        public static final int DROP_REASON_BAD_PARCEL = MessageTrace.REASON_BAD_PARCEL;
+
+        static final int DROP_REASON_COUNT = DROP_REASON_BAD_PARCEL + 1;
+
+        private final long mSentCount;
+        private final long mSendFailureCount;
+        private final long mReceivedCount;
+        private final long[] mDroppedCounts;
+        private final long mRpcSuccessCount;
+        private final long mRpcFailureCount;
+        private final long mRpcTimeoutCount;
+        private final Latency mRpcLatency;
+        private final Latency mQueueingDelay;
+
+        private Metrics(@NonNull UPClient client, @NonNull long[] droppedCounts) {
+            mSentCount = client.mSentCount.sum();
+            mSendFailureCount = client.mSendFailureCount.sum();
+            mReceivedCount = client.mReceivedCount.sum();
+            mDroppedCounts = droppedCounts;
+            mRpcSuccessCount = client.mRpcSuccessCount.sum();
+            mRpcFailureCount = client.mRpcFailureCount.sum();
+            mRpcTimeoutCount = client.mRpcTimeoutCount.sum();
+            mRpcLatency = new Latency(client.mRpcLatency.snapshot());
+            mQueueingDelay = new Latency(client.mQueueingDelay.snapshot());
+        }
+
+        /**
+         * Get the number of messages successfully sent, including RPC requests.
+         *
+         * @return The number of sent messages.
+         */
+        public long getSentCount() {
+            return mSentCount;
+        }
+
+        /**
+         * Get the number of messages that failed to be sent.
+         *
+         * @return The number of failed messages.
+         */
+        public long getSendFailureCount() {
+            return mSendFailureCount;
+        }
+
+        /**
+         * Get the number of received messages, including dropped ones.
+         *
+         * @return The number of received messages.
+         */
+        public long getReceivedCount() {
+            return mReceivedCount;
+        }
+
+        /**
+         * Get the number of received messages dropped for a given reason.
+         *
+         * @param reason One of <code>DROP_REASON_*</code> values.
+         * @return The number of dropped messages.
+         */
+        public long getDroppedCount(int reason) {
+            return (reason > 0 && reason < mDroppedCounts.length) ? mDroppedCounts[reason] : 0;
+        }
+
+        /**
+         * Get the number of received messages dropped for any reason.
+         *
+         * @return The number of dropped messages.
+         */
+        public long getDroppedCount() {
+            long count = 0;
+            for (long droppedCount : mDroppedCounts) {
+                count += droppedCount;
+            }
+            return count;
+        }
+
+        /**
+         * Get the number of RPC calls completed with a response.
+         *
+         * @return The number of successful calls.
+         */
+        public long getRpcSuccessCount() {
+            return mRpcSuccessCount;
+        }
+
+        /**
+         * Get the number of RPC calls that failed for other reasons than a timeout.
+         *
+         * @return The number of failed calls.
+         */
+        public long getRpcFailureCount() {
+            return mRpcFailureCount;
+        }
+
+        /**
+         * Get the number of RPC calls that timed out.
+         *
+         * @return The number of timed out calls.
+         */
+        public long getRpcTimeoutCount() {
+            return mRpcTimeoutCount;
+        }
+
+        /**
+         * Get the round trip latency of RPC calls completed with a response.
+         *
+         * @return A {@link Latency} of RPC calls.
+         */
+        public @NonNull Latency getRpcLatency() {
+            return mRpcLatency;
+        }
+
+        /**
+         * Get the delay between receiving a message and starting its dispatch on the callback executor
+         * or a dispatch lane.
+         *
+         * @return A {@link Latency} of dispatching.
+         */
+        public @NonNull Latency getQueueingDelay() {
+            return mQueueingDelay;
+        }
+
+        /**
+         * A distribution of durations, with a relative error of values below 1/16.
+         */
+        public static final class Latency {
+            private final LatencyHistogram.Snapshot mSnapshot;
+
+            private Latency(@NonNull LatencyHistogram.Snapshot snapshot) {
+                mSnapshot = snapshot;
+            }
+
+            /**
+             * Get the number of recorded durations.
+             *
+             * @return The number of durations.
+             */
+            public long getCount() {
+                return mSnapshot.getCount();
+            }
+
+            /**
+             * Get the mean duration in nanoseconds.
+             *
+             * @return The mean duration, or 0 if nothing was recorded.
+             */
+            public double getMeanNanos() {
+                return mSnapshot.getMean();
+            }
+
+            /**
+             * Get the maximum duration in nanoseconds.
+             *
+             * @return The maximum duration, or 0 if nothing was recorded.
+             */
+            public long getMaxNanos() {
+                return mSnapshot.getMax();
+            }
+
+            /**
+             * Get a duration that the given percentage of recorded durations do not exceed.
+             *
+             * @param percentile A percentile, between 0 and 100.
+             * @return The duration in nanoseconds, or 0 if nothing was recorded.
+             */
+            public long getPercentileNanos(double percentile) {
+                return mSnapshot.getValueAtPercentile(percentile);
+            }
+        }
+    }
+
     @VisibleForTesting
     UPClient(@NonNull Context context, @Nullable UEntity entity, @Nullable UBusManager manager,
             @Nullable Executor executor, @Nullable ServiceLifecycleListener listener) {
+        this(context, entity, manager, executor, listener, Options.DEFAULT);
+    }
+
+    @VisibleForTesting
+    UPClient(@NonNull Context context, @Nullable UEntity entity, @Nullable UBusManager manager,
+            @Nullable Executor executor, @Nullable ServiceLifecycleListener listener, @NonNull Options options) {
         checkNonNullContext(context);
         entity = checkContainsEntity(getPackageInfo(context), entity);
         mUri = UUri.newBuilder()
@@ -208,9 +733,15 @@ public final class UPClient implements UTransport, RpcClient {
         mResponseUri = UUri.newBuilder(mUri)
                 .setResource(UResourceBuilder.forRpcResponse())
                 .build();
-        mUBusManager = ofNullable(manager).orElse(new UBusManager(context, entity, mConnectionCallback, mListener));
+        mOptions = ofNullable(options).orElse(Options.DEFAULT);
+        mTrace = (mOptions.getTraceCapacity() > 0) ? new MessageTrace(mOptions.getTraceCapacity()) : null;
+        mUBusManager = ofNullable(manager).orElse(
+                new UBusManager(context, entity, mConnectionCallback, mListener, mTrace));
         mCallbackExecutor = ofNullable(executor).orElse(context.getMainExecutor());
         mServiceLifecycleListener = ofNullable(listener).orElse((client, ready) -> {});
+        mDispatchExecutor = (mOptions.getDispatchLanes() > 0) ? this::executeOnDispatchPool : mCallbackExecutor;
+        mDispatchQueues = createDispatchQueues(mOptions, mDispatchExecutor, this::onMessageDropped);
+        mRequestTimeouts = new TimeoutScheduler(entity.getName() + "-timeout", TIMEOUT_TICK_MS, TimeUnit.MILLISECONDS);
 
         mTag = tag(entity.getName(), TAG_GROUP);
         mVerboseLoggable = Log.isLoggable(mTag, Log.VERBOSE);
@@ -219,6 +750,51 @@ public final class UPClient implements UTransport, RpcClient {
         }
     }
 
+    private static @NonNull ThreadPoolExecutor createDispatchPool(int lanes, @NonNull String name) {
+        final int threads = Math.min(lanes, Runtime.getRuntime().availableProcessors());
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                DISPATCH_THREAD_KEEP_ALIVE_SEC, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, name + "-dispatch-" + threadCount.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private void executeOnDispatchPool(@NonNull Runnable task) {
+        synchronized (mDispatchPoolLock) {
+            if (mDispatchPool == null) {
+                // Created on demand, so dispatching resumes after reconnecting
+                mDispatchPool = createDispatchPool(mOptions.getDispatchLanes(), getEntity().getName());
+            }
+            mDispatchPool.execute(task);
+        }
+    }
+
+    private void shutdownDispatchPool() {
+        synchronized (mDispatchPoolLock) {
+            if (mDispatchPool != null) {
+                // Already queued callbacks still run before worker threads exit
+                mDispatchPool.shutdown();
+                mDispatchPool = null;
+            }
+        }
+    }
+
+    private static @Nullable SerialExecutor[] createDispatchQueues(@NonNull Options options,
+            @NonNull Executor executor, @NonNull DropListener dropListener) {
+        final int capacity = options.getQueueCapacity();
+        // Without lanes, a single queue is placed in front of the callback executor if it is bounded
+        final int count = (options.getDispatchLanes() > 0) ? options.getDispatchLanes() : ((capacity > 0) ? 1 : 0);
+        if (count == 0) {
+            return null;
+        }
+        final SerialExecutor[] queues = new SerialExecutor[count];
+        for (int i = 0; i < count; i++) {
+            queues[i] = new SerialExecutor(executor, capacity, options.getOverflowPolicy(), dropListener);
+        }
+        return queues;
+    }
+
     private static void checkNonNullContext(Context context) {
         checkNotNull(context, "Context is null");
         if (context instanceof ContextWrapper contextWrapper && contextWrapper.getBaseContext() == null) {
@@ -349,6 +925,29 @@ public final class UPClient implements UTransport, RpcClient {
         return new UPClient(context, entity, null, executor, listener);
     }
 
+    /**
+     * Create an instance for a specified uEntity with given options.
+     *
+     * @param context  An application {@link Context}. This should not be <code>null</code>. If you are passing
+     *                 {@link ContextWrapper}, make sure that its base Context is non-null as well.
+     *                 Otherwise it will throw {@link NullPointerException}.
+     * @param entity   A {@link UEntity} containing its name and major version, or <code>null</code> to use the
+     *                 first found declaration under <code>application</code> or <code>service</code> element
+     *                 in a manifest.
+     * @param executor An {@link Executor} on which callbacks should execute, or <code>null</code> to execute on
+     *                 the application's main thread. Listeners are called on dispatch lanes instead,
+     *                 if they are enabled in <code>options</code>.
+     * @param listener A {@link ServiceLifecycleListener} for monitoring the uBus lifecycle.
+     * @param options  {@link Options} to configure dispatching of received messages.
+     * @return A {@link UPClient} instance.
+     * @throws SecurityException If the caller does not have {@link #META_DATA_ENTITY_NAME} and
+     *         {@link #META_DATA_ENTITY_VERSION} <code>meta-data</code> elements declared in the manifest.
+     */
+    public static @NonNull UPClient create(@NonNull Context context, @Nullable UEntity entity,
+            @Nullable Executor executor, @Nullable ServiceLifecycleListener listener, @NonNull Options options) {
+        return new UPClient(context, entity, null, executor, listener, options);
+    }
+
     /**
      * Connect to the uBus.
      *
@@ -366,7 +965,8 @@ public final class UPClient implements UTransport, RpcClient {
     /**
      * Disconnect from the uBus.
      *
-     * <p>All previously registered listeners will be automatically unregistered.
+     * <p>All previously registered listeners will be automatically unregistered, pending requests are
+     * cancelled and worker threads of this instance are stopped.
      *
      * @return A {@link CompletionStage<UStatus>} used by a caller to receive the disconnection status.
      */
@@ -402,6 +1002,19 @@ public final class UPClient implements UTransport, RpcClient {
         return mUBusManager.isConnected();
     }
 
+    /**
+     * Get the generation of the uBus connection, which changes every time the uBus is connected,
+     * disconnected or its connection is interrupted.
+     *
+     * <p>State cached from responses of core services is valid only as long as the generation is the same,
+     * since the services may have lost their state in the meantime.
+     *
+     * @return The current connection generation.
+     */
+    public int getConnectionGeneration() {
+        return mConnectionGeneration.get();
+    }
+
     private void setRegistrationExpired() {
         synchronized (mRegistrationLock) {
             mRegistrationExpired = true;
@@ -420,13 +1033,14 @@ public final class UPClient implements UTransport, RpcClient {
 
     private void release() {
         synchronized (mRegistrationLock) {
-            mRequests.values().forEach(requestFuture -> requestFuture.completeExceptionally(
+            mRequests.removeAll().forEach(requestFuture -> requestFuture.completeExceptionally(
                     new UStatusException(UCode.CANCELLED, "Service is disconnected")));
-            mRequests.clear();
             mGenericListeners.clear();
             mRequestListeners.clear();
             mRegistrationExpired = false;
         }
+        mRequestTimeouts.shutdown();
+        shutdownDispatchPool();
     }
 
     /**
@@ -467,6 +1081,18 @@ public final class UPClient implements UTransport, RpcClient {
         return mListener;
     }
 
+    @VisibleForTesting
+    TimeoutScheduler getRequestTimeouts() {
+        return mRequestTimeouts;
+    }
+
+    @VisibleForTesting
+    boolean isDispatchPoolRunning() {
+        synchronized (mDispatchPoolLock) {
+            return mDispatchPool != null;
+        }
+    }
+
 
     /**
      * Transmit a message.
@@ -476,7 +1102,32 @@ public final class UPClient implements UTransport, RpcClient {
      */
     @Override
     public @NonNull UStatus send(@NonNull UMessage message) {
-        return mUBusManager.send(message);
+        final UStatus status = mUBusManager.send(message);
+        countSent(status);
+        return status;
+    }
+
+    /**
+     * Transmit a batch of messages.
+     *
+     * <p>Messages are delivered to the uBus in as few transactions as possible, in the given order.
+     *
+     * @param messages A list of {@link UMessage} to be sent.
+     * @return A list of {@link UStatus}, one per each message in the same order, which contain
+     *         a result code and other details.
+     */
+    public @NonNull List<UStatus> send(@NonNull List<UMessage> messages) {
+        final List<UStatus> statuses = mUBusManager.sendBatch(messages);
+        statuses.forEach(this::countSent);
+        return statuses;
+    }
+
+    private void countSent(@NonNull UStatus status) {
+        if (isOk(status)) {
+            mSentCount.increment();
+        } else {
+            mSendFailureCount.increment();
+        }
     }
 
     /**
@@ -493,7 +1144,101 @@ public final class UPClient implements UTransport, RpcClient {
 
     @Override
     public @NonNull UStatus registerListener(@NonNull UUri uri, @NonNull UListener listener) {
-        return isRpcMethod(uri) ? registerRequestListener(uri, listener) : registerGenericListener(uri, listener);
+        return registerListener(uri, listener, 0);
+    }
+
+    /**
+     * Register a listener for a particular URI with given flags.
+     *
+     * <p>With {@link #FLAG_CONFLATE}, messages of a topic that arrive while the listener has not been
+     * called yet replace each other, so only the latest one is delivered. Payloads of replaced messages
+     * are never parsed. This is suitable for high-frequency topics consumed at a lower rate.
+     *
+     * <p>With {@link #FLAG_SKIP_LAST_MESSAGE}, the last message of a topic that already has other listeners
+     * is not delivered to the new listener.
+     *
+     * @param uri      A {@link UUri} associated with either topic or method.
+     * @param listener A {@link UListener} which needs to be registered.
+     * @param flags    A combination of <code>FLAG_*</code> values, which are only supported for a topic.
+     * @return A {@link UStatus} which contains a result code and other details.
+     * @see #registerListener(UUri, UListener)
+     */
+    public @NonNull UStatus registerListener(@NonNull UUri uri, @NonNull UListener listener, int flags) {
+        return isRpcMethod(uri) ? registerRequestListener(uri, listener, flags) :
+                registerGenericListener(uri, listener, flags);
+    }
+
+    /**
+     * Register a listener for multiple URIs at once.
+     *
+     * <p>Last messages of topics that already have other listeners are fetched from the uBus
+     * in as few transactions as possible, rather than one per topic.
+     *
+     * @param uris     A list of {@link UUri} associated with either topic or method.
+     * @param listener A {@link UListener} which needs to be registered.
+     * @return A list of {@link UStatus}, one per each URI in the same order, which contain
+     *         a result code and other details.
+     * @see #registerListener(UUri, UListener)
+     */
+    public @NonNull List<UStatus> registerListeners(@NonNull List<UUri> uris, @NonNull UListener listener) {
+        return registerListeners(uris, listener, 0);
+    }
+
+    /**
+     * Register a listener for multiple URIs at once with given flags.
+     *
+     * <p>Last messages are fetched on the dispatch executor, never on the calling thread, and then delivered
+     * to the listener as with {@link #registerListener(UUri, UListener, int)}.
+     *
+     * @param uris     A list of {@link UUri} associated with either topic or method.
+     * @param listener A {@link UListener} which needs to be registered.
+     * @param flags    A combination of <code>FLAG_*</code> values applied to each URI, which are only
+     *                 supported for a topic.
+     * @return A list of {@link UStatus}, one per each URI in the same order, which contain
+     *         a result code and other details.
+     * @see #registerListener(UUri, UListener, int)
+     */
+    public @NonNull List<UStatus> registerListeners(@NonNull List<UUri> uris, @NonNull UListener listener,
+            int flags) {
+        if (uris == null) {
+            return List.of();
+        }
+        final List<UStatus> statuses = new ArrayList<>(uris.size());
+        final Map<UUri, UListener> lastMessageEntries = new LinkedHashMap<>();
+        synchronized (mRegistrationLock) {
+            for (UUri uri : uris) {
+                if (isRpcMethod(uri)) {
+                    statuses.add(registerRequestListener(uri, listener, flags));
+                    continue;
+                }
+                try {
+                    checkArgument(!isEmpty(uri), "Topic is empty");
+                    checkNotNull(listener, "Listener is null");
+                    checkArgument((flags & ~TOPIC_FLAGS) == 0, "Unknown flags");
+                    final UListener entry = newGenericListenerEntry(listener, flags);
+                    final UStatus status = registerGenericListenerLocked(uri, listener, entry);
+                    if (status == null) {
+                        if ((flags & FLAG_SKIP_LAST_MESSAGE) == 0) {
+                            lastMessageEntries.put(uri, entry);
+                        }
+                        statuses.add(STATUS_OK);
+                    } else {
+                        statuses.add(status);
+                    }
+                } catch (Exception e) {
+                    statuses.add(toStatus(e));
+                }
+            }
+        }
+        if (!lastMessageEntries.isEmpty()) {
+            // The uBus call blocks, so it is not made on the calling thread
+            final List<UUri> topics = new ArrayList<>(lastMessageEntries.keySet());
+            mDispatchExecutor.execute(() -> mUBusManager.getLastMessages(topics).forEach((topic, event) -> {
+                final UListener entry = lastMessageEntries.get(topic);
+                getListenerExecutor(topic, listener).execute(() -> entry.onReceive(event));
+            }));
+        }
+        return statuses;
     }
 
     /**
@@ -522,7 +1267,7 @@ public final class UPClient implements UTransport, RpcClient {
         try {
             checkNotNull(listener, "Listener is null");
             synchronized (mRegistrationLock) {
-                mGenericListeners.keySet().removeIf(topic -> unregisterGenericListenerLocked(topic, listener));
+                mGenericListeners.keySet().forEach(topic -> unregisterGenericListenerLocked(topic, listener));
                 mRequestListeners.entrySet().removeIf(entry -> {
                     if (entry.getValue() == listener) {
                         mUBusManager.disableDispatchingQuietly(entry.getKey());
@@ -538,45 +1283,70 @@ public final class UPClient implements UTransport, RpcClient {
         }
     }
 
-    private @NonNull UStatus registerGenericListener(@NonNull UUri topic, @NonNull UListener listener) {
+    private @NonNull UStatus registerGenericListener(@NonNull UUri topic, @NonNull UListener listener, int flags) {
         try {
             checkArgument(!isEmpty(topic), "Topic is empty");
             checkNotNull(listener, "Listener is null");
+            checkArgument((flags & ~TOPIC_FLAGS) == 0, "Unknown flags");
+            final UListener entry = newGenericListenerEntry(listener, flags);
+            final UStatus status;
             synchronized (mRegistrationLock) {
-                Set<UListener> listeners = mGenericListeners.get(topic);
-                if (listeners == null) {
-                    listeners = new HashSet<>();
-                }
-                if (listeners.isEmpty()) {
-                    final UStatus status = mUBusManager.enableDispatching(topic);
-                    if (!isOk(status)) {
-                        return status;
-                    }
-                    mGenericListeners.put(topic, listeners);
-                }
-                if (listeners.add(listener) && listeners.size() > 1) {
-                    mCallbackExecutor.execute(() -> {
+                status = registerGenericListenerLocked(topic, listener, entry);
+            }
+            if (status == null) {
+                if ((flags & FLAG_SKIP_LAST_MESSAGE) == 0) {
+                    getListenerExecutor(topic, listener).execute(() -> {
                         final UMessage event = mUBusManager.getLastMessage(topic);
                         if (event != null) {
-                            listener.onReceive(event);
+                            entry.onReceive(event);
                         }
                     });
                 }
                 return STATUS_OK;
             }
+            return status;
         } catch (Exception e) {
             return toStatus(e);
         }
     }
 
+    private static @NonNull UListener newGenericListenerEntry(@NonNull UListener listener, int flags) {
+        return ((flags & FLAG_CONFLATE) != 0) ? new ConflatingListener(listener) : listener;
+    }
+
+    /**
+     * Add a listener for a topic.
+     *
+     * @return A {@link UStatus} of the registration, or <code>null</code> if the listener was added
+     *         to other listeners of the topic, and so the last message should be delivered to it.
+     */
+    @GuardedBy("mRegistrationLock")
+    private @Nullable UStatus registerGenericListenerLocked(@NonNull UUri topic, @NonNull UListener listener,
+            @NonNull UListener entry) {
+        final UListener[] listeners = mGenericListeners.get(topic);
+        if (listeners == null) {
+            final UStatus status = mUBusManager.enableDispatching(topic);
+            if (isOk(status)) {
+                mGenericListeners.put(topic, new UListener[] { entry });
+            }
+            return status;
+        }
+        if (indexOf(listeners, listener) >= 0) {
+            return STATUS_OK;
+        }
+        // Published arrays are never modified, a new one replaces the current
+        final UListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = entry;
+        mGenericListeners.put(topic, newListeners);
+        return null;
+    }
+
     private @NonNull UStatus unregisterGenericListener(@NonNull UUri topic, @NonNull UListener listener) {
         try {
             checkArgument(!isEmpty(topic), "Topic is empty");
             checkNotNull(listener, "Listener is null");
             synchronized (mRegistrationLock) {
-                if (unregisterGenericListenerLocked(topic, listener)) {
-                    mGenericListeners.remove(topic);
-                }
+                unregisterGenericListenerLocked(topic, listener);
             }
             return STATUS_OK;
         } catch (Exception e) {
@@ -584,22 +1354,42 @@ public final class UPClient implements UTransport, RpcClient {
         }
     }
 
-    private boolean unregisterGenericListenerLocked(@NonNull UUri topic, @NonNull UListener listener) {
-        final Set<UListener> listeners = mGenericListeners.get(topic);
-        if (listeners != null && listeners.contains(listener)) {
-            listeners.remove(listener);
-            if (listeners.isEmpty()) {
-                // No listener left for this topic
-                mUBusManager.disableDispatchingQuietly(topic);
-                return true; // The entry MUST be removed
+    @GuardedBy("mRegistrationLock")
+    private void unregisterGenericListenerLocked(@NonNull UUri topic, @NonNull UListener listener) {
+        final UListener[] listeners = mGenericListeners.get(topic);
+        final int index = indexOf(listeners, listener);
+        if (index < 0) {
+            return;
+        }
+        if (listeners.length == 1) {
+            // No listener left for this topic
+            mGenericListeners.remove(topic);
+            mUBusManager.disableDispatchingQuietly(topic);
+            return;
+        }
+        final UListener[] newListeners = new UListener[listeners.length - 1];
+        System.arraycopy(listeners, 0, newListeners, 0, index);
+        System.arraycopy(listeners, index + 1, newListeners, index, newListeners.length - index);
+        mGenericListeners.put(topic, newListeners);
+    }
+
+    private static int indexOf(@Nullable UListener[] listeners, @NonNull UListener listener) {
+        if (listeners != null) {
+            for (int i = 0; i < listeners.length; i++) {
+                if (listeners[i] == listener ||
+                        (listeners[i] instanceof ConflatingListener conflatingListener &&
+                                conflatingListener.mListener == listener)) {
+                    return i;
+                }
             }
         }
-        return false;
+        return -1;
     }
 
-    private @NonNull UStatus registerRequestListener(@NonNull UUri methodUri, @NonNull UListener listener) {
+    private @NonNull UStatus registerRequestListener(@NonNull UUri methodUri, @NonNull UListener listener, int flags) {
         try {
             checkNotNull(listener, "Listener is null");
+            checkArgument(flags == 0, "Flags are not supported for a method");
             synchronized (mRegistrationLock) {
                 final UListener currentListener = mRequestListeners.get(methodUri);
                 if (currentListener == listener) {
@@ -643,33 +1433,81 @@ public final class UPClient implements UTransport, RpcClient {
     public @NonNull CompletionStage<UMessage> invokeMethod(@NonNull UUri methodUri, @NonNull UPayload requestPayload,
             @NonNull CallOptions options) {
         try {
-            checkArgument(!isEmpty(methodUri), "Method URI is empty");
-            checkNotNull(requestPayload, "Payload is null");
-            checkNotNull(options, "Options cannot be null");
-            final UPriority priority = checkPriority(options);
-            final int timeout = checkArgumentPositive(options.getTtl(), "Timeout is not positive");
-            final UAttributesBuilder builder = UAttributesBuilder.request(mResponseUri, methodUri, priority, timeout);
-            if (options.hasToken()) {
-                builder.withToken(options.getToken());
-            }
-            final UMessage requestMessage = UMessage.newBuilder()
-                    .setPayload(requestPayload)
-                    .setAttributes(builder.build())
-                    .build();
-            return mRequests.compute(requestMessage.getAttributes().getId(), (requestId, currentRequest) -> {
-                checkArgument(currentRequest == null, UCode.ABORTED, "Duplicated request found");
-                final UStatus status = send(requestMessage);
-                if (isOk(status)) {
-                    return buildClientResponseFuture(requestMessage);
-                } else {
-                    throw new UStatusException(status);
-                }
-            });
+            final UMessage requestMessage = buildRequestMessage(methodUri, requestPayload, options);
+            final CompletableFuture<UMessage> responseFuture = registerRequest(requestMessage);
+            // Not holding any lock during the transaction, a response may arrive before it returns
+            final UStatus status = send(requestMessage);
+            if (!isOk(status)) {
+                // Also removes the request
+                responseFuture.completeExceptionally(new UStatusException(status));
+            }
+            return responseFuture;
         } catch (Exception e) {
             return CompletableFuture.failedFuture(e);
         }
     }
 
+    /**
+     * Asynchronously invoke several methods at once (send RPC requests) and receive responses.
+     *
+     * <p>All requests are sent to the uBus in as few transactions as possible, in the given order.
+     * A failure of one call does not affect others.
+     *
+     * @param calls A list of {@link RpcCall} describing invocations.
+     * @return A list of {@link CompletionStage<UMessage>}, one per each call in the same order, used by
+     *         a caller to receive responses. A <code>null</code> call gets a failed stage.
+     */
+    public @NonNull List<CompletionStage<UMessage>> invokeMethods(@NonNull List<RpcCall> calls) {
+        if (calls == null) {
+            return List.of();
+        }
+        final List<CompletionStage<UMessage>> responseFutures = new ArrayList<>(calls.size());
+        final List<UMessage> requestMessages = new ArrayList<>(calls.size());
+        final List<CompletableFuture<UMessage>> pendingFutures = new ArrayList<>(calls.size());
+        for (RpcCall call : calls) {
+            try {
+                checkNotNull(call, "Call is null");
+                final UMessage requestMessage =
+                        buildRequestMessage(call.getMethodUri(), call.getPayload(), call.getOptions());
+                // Register before sending, a response may arrive before the batch is sent entirely
+                final CompletableFuture<UMessage> responseFuture = registerRequest(requestMessage);
+                requestMessages.add(requestMessage);
+                pendingFutures.add(responseFuture);
+                responseFutures.add(responseFuture);
+            } catch (Exception e) {
+                responseFutures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        if (!requestMessages.isEmpty()) {
+            final List<UStatus> statuses = send(requestMessages);
+            for (int i = 0; i < pendingFutures.size(); i++) {
+                final UStatus status = statuses.get(i);
+                if (!isOk(status)) {
+                    // Also removes the request
+                    pendingFutures.get(i).completeExceptionally(new UStatusException(status));
+                }
+            }
+        }
+        return responseFutures;
+    }
+
+    private @NonNull UMessage buildRequestMessage(@NonNull UUri methodUri, @NonNull UPayload requestPayload,
+            @NonNull CallOptions options) {
+        checkArgument(!isEmpty(methodUri), "Method URI is empty");
+        checkNotNull(requestPayload, "Payload is null");
+        checkNotNull(options, "Options cannot be null");
+        final UPriority priority = checkPriority(options);
+        final int timeout = checkArgumentPositive(options.getTtl(), "Timeout is not positive");
+        final UAttributesBuilder builder = UAttributesBuilder.request(mResponseUri, methodUri, priority, timeout);
+        if (options.hasToken()) {
+            builder.withToken(options.getToken());
+        }
+        return UMessage.newBuilder()
+                .setPayload(requestPayload)
+                .setAttributes(builder.build())
+                .build();
+    }
+
     private static @NonNull UPriority checkPriority(@NonNull CallOptions options) {
         final UPriority priority = options.getPriority();
         checkArgument(priority.getNumber() >= UPriority.UPRIORITY_CS4.getNumber(),
@@ -677,76 +1515,386 @@ public final class UPClient implements UTransport, RpcClient {
         return priority;
     }
 
-    private @NonNull CompletableFuture<UMessage> buildClientResponseFuture(@NonNull UMessage requestMessage) {
-        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<UMessage>()
-                .orTimeout(requestMessage.getAttributes().getTtl(), TimeUnit.MILLISECONDS);
-        responseFuture.whenComplete((responseMessage, exception) ->
-            mRequests.remove(requestMessage.getAttributes().getId()));
+    private @NonNull CompletableFuture<UMessage> registerRequest(@NonNull UMessage requestMessage) {
+        final UUID requestId = requestMessage.getAttributes().getId();
+        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<>();
+        final long startTime = System.nanoTime();
+        checkArgument(mRequests.putIfAbsent(requestId.getMsb(), requestId.getLsb(), responseFuture) == null,
+                UCode.ABORTED, "Duplicated request found");
+        final TimeoutScheduler.Timeout timeout = mRequestTimeouts.schedule(
+                () -> responseFuture.completeExceptionally(new TimeoutException()),
+                requestMessage.getAttributes().getTtl(), TimeUnit.MILLISECONDS);
+        responseFuture.whenComplete((responseMessage, exception) -> {
+            timeout.cancel();
+            mRequests.remove(requestId.getMsb(), requestId.getLsb(), responseFuture);
+            if (exception == null) {
+                mRpcSuccessCount.increment();
+                mRpcLatency.record(System.nanoTime() - startTime);
+            } else if (exception instanceof TimeoutException) {
+                mRpcTimeoutCount.increment();
+            } else {
+                mRpcFailureCount.increment();
+            }
+            trace(MessageTrace.EVENT_RPC_COMPLETE, MessageTrace.REASON_NONE, requestMessage.getAttributes(),
+                    (exception == null) ? UCode.OK : toStatus(exception).getCode());
+        });
         return responseFuture;
     }
 
-    private void handleMessage(@NonNull UMessage message) {
+    private boolean isDispatchingByListener() {
+        return mOptions.getDispatchLanes() > 0 && mOptions.getDispatchMode() == Options.DISPATCH_BY_LISTENER;
+    }
+
+    private @NonNull SerialExecutor getDispatchQueue(@NonNull Object key) {
+        return mDispatchQueues[Math.floorMod(key.hashCode(), mDispatchQueues.length)];
+    }
+
+    private static @NonNull UUri getTopic(@NonNull UAttributes attributes) {
+        return (attributes.getType() == UMessageType.UMESSAGE_TYPE_REQUEST) ?
+                attributes.getSink() : attributes.getSource();
+    }
+
+    private static @NonNull Object getQueueKey(@NonNull UAttributes attributes, @NonNull Object defaultKey) {
+        return (attributes.getType() == UMessageType.UMESSAGE_TYPE_REQUEST) ? new RequestKey(attributes) : defaultKey;
+    }
+
+    private @NonNull Executor getDispatchExecutor(@NonNull ParcelableUMessage message) {
+        if (mDispatchQueues == null) {
+            return mCallbackExecutor;
+        }
+        if (isDispatchingByListener()) {
+            return DIRECT_EXECUTOR; // Each listener is called on its own lane
+        }
+        return getDispatchQueue(getTopic(message.getAttributes()));
+    }
+
+    private @NonNull Executor getListenerExecutor(@NonNull UUri topic, @NonNull UListener listener) {
+        if (mDispatchQueues == null) {
+            return mCallbackExecutor;
+        }
+        return getDispatchQueue(isDispatchingByListener() ? listener : topic);
+    }
+
+    private void onMessageDropped(@Nullable Object key) {
+        final UAttributes requestAttributes = (key instanceof RequestKey requestKey) ? requestKey.attributes() : null;
+        final UUri topic;
+        if (requestAttributes != null) {
+            topic = requestAttributes.getSink();
+        } else {
+            topic = (key instanceof DeliveryKey deliveryKey) ? deliveryKey.topic() : (UUri) key;
+        }
+        if (topic == null) {
+            return;
+        }
+        mDroppedMessages.computeIfAbsent(topic, it -> new LongAdder()).increment();
+        mDroppedCounts[MessageTrace.REASON_QUEUE_FULL].increment();
+        if (mTrace != null) {
+            mTrace.record(MessageTrace.EVENT_DROP, MessageTrace.REASON_QUEUE_FULL, null, topic,
+                    UCode.RESOURCE_EXHAUSTED);
+        }
         if (mVerboseLoggable) {
-            Log.v(mTag, join(Key.EVENT, MESSAGE_RECEIVED, Key.MESSAGE, stringify(message)));
+            Log.v(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED).append(Key.TOPIC, topic)
+                    .append(Key.REASON, "Queue is full").build());
+        }
+        if (requestAttributes != null) {
+            // Let the caller fail fast instead of waiting for its timeout
+            send(UMessage.newBuilder()
+                    .setAttributes(UAttributesBuilder.response(requestAttributes)
+                            .withCommStatus(UCode.RESOURCE_EXHAUSTED)
+                            .build())
+                    .build());
+        }
+    }
+
+    /**
+     * Get the number of received messages of a topic dropped because a dispatch queue was full.
+     *
+     * @param topic A {@link UUri} of a topic, or a method for requests.
+     * @return The number of dropped messages.
+     * @see Options.Builder#setQueueCapacity(int)
+     */
+    public long getDroppedMessageCount(@NonNull UUri topic) {
+        final LongAdder counter = mDroppedMessages.get(topic);
+        return (counter != null) ? counter.sum() : 0;
+    }
+
+    /**
+     * Dump recent message events: sent, received and dropped messages, and completed RPC calls.
+     *
+     * <p>Nothing but a header is written if tracing is disabled.
+     *
+     * @param writer A {@link PrintWriter} to write to.
+     * @see Options.Builder#setTraceCapacity(int)
+     */
+    public void dumpTrace(@NonNull PrintWriter writer) {
+        if (mTrace != null) {
+            mTrace.dump(writer);
+        } else {
+            writer.println(join(Key.COUNT, 0, Key.SIZE, 0));
+            writer.flush();
+        }
+    }
+
+    private void trace(int event, int reason, @Nullable UAttributes attributes, @NonNull UCode code) {
+        if (mTrace != null) {
+            mTrace.record(event, reason, attributes, code);
+        }
+    }
+
+    private void dropMessage(int reason, @Nullable UAttributes attributes, @NonNull UCode code) {
+        mDroppedCounts[reason].increment();
+        trace(MessageTrace.EVENT_DROP, reason, attributes, code);
+    }
+
+    /**
+     * Get a snapshot of traffic statistics per topic sent and received by this client.
+     *
+     * <p>Requests are accounted under the method URI, other messages under the source URI.
+     *
+     * @return A map of topic URIs to {@link TopicTraffic} snapshots.
+     */
+    public @NonNull Map<UUri, TopicTraffic> getTrafficStats() {
+        return mUBusManager.getTrafficStats();
+    }
+
+    /**
+     * Get a snapshot of metrics collected since this client was created.
+     *
+     * @return {@link Metrics} of sent and received messages, and RPC calls.
+     */
+    public @NonNull Metrics getMetrics() {
+        final long[] droppedCounts = new long[mDroppedCounts.length];
+        for (int i = 0; i < droppedCounts.length; i++) {
+            droppedCounts[i] = mDroppedCounts[i].sum();
+        }
+        return new Metrics(this, droppedCounts);
+    }
+
+    private void handleMessage(@NonNull ParcelableUMessage message) {
+        if (acceptMessage(message) && conflateMessage(message)) {
+            final Executor executor = getDispatchExecutor(message);
+            final long queueTime = System.nanoTime();
+            if (executor instanceof SerialExecutor queue) {
+                final UAttributes attributes = message.getAttributes();
+                queue.execute(getQueueKey(attributes, getTopic(attributes)), () -> dispatchMessage(message, queueTime));
+            } else {
+                executor.execute(() -> dispatchMessage(message, queueTime));
+            }
+        }
+    }
+
+    private void handleMessages(@NonNull List<ParcelableUMessage> messages) {
+        if (mDispatchQueues != null) {
+            // Queued messages are dispatched one by one, so each of them can be dropped on overflow
+            messages.forEach(this::handleMessage);
+            return;
+        }
+        // Accepted messages are dispatched with one task per executor, keeping their order
+        final Map<Executor, List<ParcelableUMessage>> batches = new LinkedHashMap<>();
+        for (ParcelableUMessage message : messages) {
+            if (acceptMessage(message) && conflateMessage(message)) {
+                batches.computeIfAbsent(getDispatchExecutor(message), executor -> new ArrayList<>()).add(message);
+            }
         }
+        final long queueTime = System.nanoTime();
+        batches.forEach((executor, batch) ->
+                executor.execute(() -> batch.forEach(message -> dispatchMessage(message, queueTime))));
+    }
+
+    /**
+     * Hand a message over to conflating listeners of its topic.
+     *
+     * @return <code>true</code> if the message still needs to be dispatched to other listeners.
+     */
+    private boolean conflateMessage(@NonNull ParcelableUMessage message) {
         final UAttributes attributes = message.getAttributes();
+        if (attributes.getType() == UMessageType.UMESSAGE_TYPE_REQUEST) {
+            return true;
+        }
+        final UListener[] listeners = mGenericListeners.get(attributes.getSource());
+        if (listeners == null) {
+            return true; // To be dropped by the dispatcher
+        }
+        boolean hasOtherListeners = false;
+        for (UListener listener : listeners) {
+            if (listener instanceof ConflatingListener conflatingListener) {
+                conflatingListener.offer(message);
+            } else {
+                hasOtherListeners = true;
+            }
+        }
+        return hasOtherListeners;
+    }
+
+    private boolean acceptMessage(@NonNull ParcelableUMessage message) {
+        // Only attributes are parsed here, a payload is parsed when the message is delivered to a listener
+        final UAttributes attributes;
+        try {
+            attributes = message.getAttributes();
+        } catch (BadParcelableException e) {
+            Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.REASON, e.getMessage()));
+            dropMessage(MessageTrace.REASON_BAD_PARCEL, null, UCode.INVALID_ARGUMENT);
+            return false;
+        }
+        mReceivedCount.increment();
+        trace(MessageTrace.EVENT_RECEIVE, MessageTrace.REASON_NONE, attributes, UCode.OK);
+        if (mVerboseLoggable) {
+            Log.v(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_RECEIVED).append(Key.MESSAGE, attributes)
+                    .build());
+        }
         final UAttributesValidator validator = getValidator(attributes);
         final ValidationResult result = validator.validate(attributes);
         if (result.isFailure()) {
-            Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(message), Key.REASON, result.getMessage()));
-            return;
+            Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED).append(Key.MESSAGE, attributes)
+                    .append(Key.REASON, result.getMessage()).build());
+            dropMessage(MessageTrace.REASON_INVALID, attributes, UCode.INVALID_ARGUMENT);
+            return false;
         }
         if (validator.isExpired(attributes)) { // Do we need to check expiration? Should be done by the service...
-            Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(message), Key.REASON, "Expired"));
-            return;
+            Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED).append(Key.MESSAGE, attributes)
+                    .append(Key.REASON, "Expired").build());
+            dropMessage(MessageTrace.REASON_EXPIRED, attributes, UCode.DEADLINE_EXCEEDED);
+            return false;
         }
         switch (attributes.getType()) {
-            case UMESSAGE_TYPE_PUBLISH, UMESSAGE_TYPE_NOTIFICATION -> handleGenericMessage(message);
-            case UMESSAGE_TYPE_REQUEST -> handleRequestMessage(message);
-            case UMESSAGE_TYPE_RESPONSE -> handleResponseMessage(message);
-            default -> Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(message), Key.REASON, "Unknown type"));
+            case UMESSAGE_TYPE_PUBLISH, UMESSAGE_TYPE_NOTIFICATION -> {
+                return acceptGenericMessage(attributes);
+            }
+            case UMESSAGE_TYPE_REQUEST -> {
+                return true;
+            }
+            case UMESSAGE_TYPE_RESPONSE -> {
+                handleResponseMessage(message);
+                return false;
+            }
+            default -> {
+                Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED).append(Key.MESSAGE, attributes)
+                        .append(Key.REASON, "Unknown type").build());
+                dropMessage(MessageTrace.REASON_UNKNOWN_TYPE, attributes, UCode.INVALID_ARGUMENT);
+                return false;
+            }
         }
     }
 
-    private void handleGenericMessage(@NonNull UMessage message) {
-        if (message.getAttributes().hasSink()) {
-            final UEntity entity = message.getAttributes().getSink().getEntity();
+    private boolean acceptGenericMessage(@NonNull UAttributes attributes) {
+        if (attributes.hasSink()) {
+            final UEntity entity = attributes.getSink().getEntity();
             if (!entity.equals(mUri.getEntity())) {
-                Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(message), Key.REASON, "Wrong sink"));
-                return;
+                Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED).append(Key.MESSAGE, attributes)
+                        .append(Key.REASON, "Wrong sink").build());
+                dropMessage(MessageTrace.REASON_WRONG_SINK, attributes, UCode.PERMISSION_DENIED);
+                return false;
             }
         }
-        mCallbackExecutor.execute(() -> {
-            final UUri topic = message.getAttributes().getSource();
-            final Set<UListener> listeners;
-            synchronized (mRegistrationLock) {
-                listeners = new ArraySet<>(mGenericListeners.get(topic));
-                if (listeners.isEmpty()) {
-                    Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(message), Key.REASON, "No listener"));
+        return true;
+    }
+
+    private @Nullable UMessage unwrapMessage(@NonNull ParcelableUMessage message) {
+        try {
+            return message.getWrapped();
+        } catch (BadParcelableException e) {
+            Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED)
+                    .append(Key.MESSAGE, message.getAttributes()).append(Key.REASON, e.getMessage()).build());
+            dropMessage(MessageTrace.REASON_BAD_PARCEL, message.getAttributes(),
+                    UCode.INVALID_ARGUMENT);
+            return null;
+        }
+    }
+
+    private void dispatchMessage(@NonNull ParcelableUMessage message, long queueTime) {
+        mQueueingDelay.record(System.nanoTime() - queueTime);
+        if (message.getAttributes().getType() == UMessageType.UMESSAGE_TYPE_REQUEST) {
+            dispatchRequestMessage(message);
+        } else {
+            dispatchGenericMessage(message);
+        }
+    }
+
+    private void dispatchGenericMessage(@NonNull ParcelableUMessage message) {
+        final UUri topic = message.getAttributes().getSource();
+        final UListener[] listeners = mGenericListeners.get(topic);
+        if (listeners == null) {
+            Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED)
+                    .append(Key.MESSAGE, message.getAttributes()).append(Key.REASON, "No listener").build());
+            dropMessage(MessageTrace.REASON_NO_LISTENER, message.getAttributes(), UCode.NOT_FOUND);
+            return;
+        }
+        final UMessage wrappedMessage = unwrapMessage(message);
+        if (wrappedMessage != null) {
+            for (UListener listener : listeners) {
+                if (!(listener instanceof ConflatingListener)) { // Already offered
+                    deliverMessage(topic, listener, wrappedMessage);
                 }
             }
-            listeners.forEach(listener -> listener.onReceive(message));
-        });
+        }
     }
 
-    private void handleRequestMessage(@NonNull UMessage requestMessage) {
-        mCallbackExecutor.execute(() -> {
-            final UUri methodUri = requestMessage.getAttributes().getSink();
-            final UListener listener;
-            synchronized (mRegistrationLock) {
-                listener = mRequestListeners.get(methodUri);
-                if (listener == null) {
-                    Log.w(mTag, join(Key.EVENT, MESSAGE_DROPPED, Key.MESSAGE, stringify(requestMessage), Key.REASON, "No listener"));
-                    return;
-                }
+    private void dispatchRequestMessage(@NonNull ParcelableUMessage requestMessage) {
+        final UUri methodUri = requestMessage.getAttributes().getSink();
+        final UListener listener = mRequestListeners.get(methodUri);
+        if (listener == null) {
+            Log.w(mTag, LogBuilder.obtain().append(Key.EVENT, MESSAGE_DROPPED)
+                    .append(Key.MESSAGE, requestMessage.getAttributes()).append(Key.REASON, "No listener").build());
+            dropMessage(MessageTrace.REASON_NO_LISTENER, requestMessage.getAttributes(),
+                    UCode.NOT_FOUND);
+            return;
+        }
+        final UMessage wrappedMessage = unwrapMessage(requestMessage);
+        if (wrappedMessage != null) {
+            deliverMessage(methodUri, listener, wrappedMessage);
+        }
+    }
+
+    private void deliverMessage(@NonNull UUri topic, @NonNull UListener listener, @NonNull UMessage message) {
+        if (isDispatchingByListener()) {
+            final Object key = getQueueKey(message.getAttributes(), new DeliveryKey(topic, listener));
+            getDispatchQueue(listener).execute(key, () -> listener.onReceive(message));
+        } else {
+            listener.onReceive(message);
+        }
+    }
+
+    /**
+     * A wrapper of a listener registered with {@link #FLAG_CONFLATE}, keeping at most one pending message
+     * and one scheduled callback.
+     */
+    private final class ConflatingListener implements UListener {
+        private final UListener mListener;
+        private final AtomicReference<ParcelableUMessage> mPendingMessage = new AtomicReference<>();
+        // Bypasses bounded queues, at most one callback is pending here
+        private final SerialExecutor mExecutor = new SerialExecutor(mDispatchExecutor);
+
+        ConflatingListener(@NonNull UListener listener) {
+            mListener = listener;
+        }
+
+        void offer(@NonNull ParcelableUMessage message) {
+            if (mPendingMessage.getAndSet(message) == null) {
+                mExecutor.execute(this::deliver);
             }
-            listener.onReceive(requestMessage);
-        });
+        }
+
+        private void deliver() {
+            final ParcelableUMessage message = mPendingMessage.getAndSet(null);
+            if (message == null) {
+                return;
+            }
+            final UMessage wrappedMessage = unwrapMessage(message);
+            if (wrappedMessage != null) {
+                mListener.onReceive(wrappedMessage);
+            }
+        }
+
+        @Override
+        public void onReceive(@NonNull UMessage message) {
+            offer(new ParcelableUMessage(message));
+        }
     }
 
-    private void handleResponseMessage(@NonNull UMessage responseMessage) {
+    private void handleResponseMessage(@NonNull ParcelableUMessage responseMessage) {
         final UAttributes responseAttributes = responseMessage.getAttributes();
-        final CompletableFuture<UMessage> responseFuture = mRequests.remove(responseAttributes.getReqid());
+        final UUID requestId = responseAttributes.getReqid();
+        final CompletableFuture<UMessage> responseFuture = mRequests.remove(requestId.getMsb(), requestId.getLsb());
         if (responseFuture == null) {
             return;
         }
@@ -757,6 +1905,10 @@ public final class UPClient implements UTransport, RpcClient {
                 return;
             }
         }
-        responseFuture.complete(responseMessage);
+        try {
+            responseFuture.complete(responseMessage.getWrapped());
+        } catch (BadParcelableException e) {
+            responseFuture.completeExceptionally(new UStatusException(UCode.INTERNAL, e.getMessage()));
+        }
     }
 }
@@ -30,7 +30,7 @@ import android.annotation.SuppressLint;
 
 import androidx.annotation.NonNull;
 
-import org.eclipse.uprotocol.uri.serializer.LongUriSerializer;
+import org.eclipse.uprotocol.internal.CachingUriSerializer;
 import org.eclipse.uprotocol.uuid.serializer.LongUuidSerializer;
 import org.eclipse.uprotocol.v1.UAttributes;
 import org.eclipse.uprotocol.v1.UEntity;
@@ -246,7 +246,7 @@ public interface Formatter {
      * @return A formatted string.
      */
     static @NonNull String stringify(UUri uri) {
-        return LongUriSerializer.instance().serialize(uri);
+        return CachingUriSerializer.instance().serialize(uri);
     }
 
     /**
@@ -274,7 +274,19 @@ public interface Formatter {
         if (message == null) {
             return "";
         }
-        final UAttributes attributes = message.getAttributes();
+        return stringify(message.getAttributes());
+    }
+
+    /**
+     * Convert {@link UAttributes} into a string containing arbitrary fields.
+     *
+     * @param attributes {@link UAttributes} to convert.
+     * @return A formatted string.
+     */
+    static @NonNull String stringify(UAttributes attributes) {
+        if (attributes == null) {
+            return "";
+        }
         final boolean hasSink = attributes.hasSink();
         return joinGrouped(Key.ID, stringify(attributes.getId()), Key.SOURCE, stringify(attributes.getSource()),
                 hasSink ? Key.SINK : null, hasSink ? stringify(attributes.getSink()) : null,
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.common.util.log;
+
+import androidx.annotation.NonNull;
+
+import org.eclipse.uprotocol.v1.UAttributes;
+import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UStatus;
+import org.eclipse.uprotocol.v1.UUID;
+import org.eclipse.uprotocol.v1.UUri;
+
+/**
+ * The builder of log lines of key-value pairs, in the same format as {@link Formatter#join(Object...)}.
+ *
+ * <p>Unlike {@link Formatter#join(Object...)}, values are appended without boxing and without intermediate
+ * strings. An instance is reused by the calling thread, so it should be obtained right before building
+ * a line and not be kept after {@link #build()}:
+ * <pre>
+ *     Log.v(TAG, LogBuilder.obtain().status("send", status).append(Key.MESSAGE, message).build());
+ * </pre>
+ */
+public final class LogBuilder {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<LogBuilder> sThreadBuilder = ThreadLocal.withInitial(LogBuilder::new);
+
+    private StringBuilder mBuilder = new StringBuilder(INITIAL_CAPACITY);
+    private boolean mInUse;
+
+    private LogBuilder() {}
+
+    /**
+     * Obtain an empty builder of the calling thread.
+     *
+     * <p>If the builder of the calling thread is in use, for example while building arguments of another
+     * line, or left in use by a line that failed before {@link #build()}, a new instance is returned and
+     * becomes the builder of the calling thread.
+     *
+     * @return An empty {@link LogBuilder}.
+     */
+    public static @NonNull LogBuilder obtain() {
+        LogBuilder builder = sThreadBuilder.get();
+        if (builder.mInUse) {
+            // Replaced rather than kept, so a builder that is never built does not cost every later line
+            builder = new LogBuilder();
+            sThreadBuilder.set(builder);
+        }
+        builder.mInUse = true;
+        return builder;
+    }
+
+    /**
+     * Append a string value.
+     *
+     * @param key   A key, the pair is skipped if it is empty.
+     * @param value A value, quoted if it contains spaces.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, String value) {
+        if (appendKey(key)) {
+            appendQuotedIfNeeded(value);
+        }
+        return this;
+    }
+
+    /**
+     * Append a numeric value.
+     *
+     * @param key   A key, the pair is skipped if it is empty.
+     * @param value A value.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, long value) {
+        if (appendKey(key)) {
+            mBuilder.append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Append a boolean value.
+     *
+     * @param key   A key, the pair is skipped if it is empty.
+     * @param value A value.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, boolean value) {
+        if (appendKey(key)) {
+            mBuilder.append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Append an arbitrary value converted by {@link Object#toString()}.
+     *
+     * @param key   A key, the pair is skipped if it is empty.
+     * @param value A value, quoted if its string contains spaces.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, Object value) {
+        if (appendKey(key)) {
+            if (value instanceof Enum) {
+                mBuilder.append(((Enum<?>) value).name());
+            } else if (value != null) {
+                appendQuotedIfNeeded(value.toString());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append a {@link UUri} value, as {@link Formatter#stringify(UUri)} does.
+     *
+     * @param key A key, the pair is skipped if it is empty.
+     * @param uri A {@link UUri} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, UUri uri) {
+        if (appendKey(key)) {
+            mBuilder.append(Formatter.stringify(uri));
+        }
+        return this;
+    }
+
+    /**
+     * Append a {@link UUID} value, as {@link Formatter#stringify(UUID)} does.
+     *
+     * @param key A key, the pair is skipped if it is empty.
+     * @param id  A {@link UUID} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, UUID id) {
+        if (appendKey(key)) {
+            appendUuid(id);
+        }
+        return this;
+    }
+
+    /**
+     * Append a {@link UStatus} value, as {@link Formatter#stringify(UStatus)} does.
+     *
+     * @param key    A key, the pair is skipped if it is empty.
+     * @param status A {@link UStatus} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, UStatus status) {
+        if (appendKey(key)) {
+            appendStatus(status);
+        }
+        return this;
+    }
+
+    /**
+     * Append a {@link UMessage} value, as {@link Formatter#stringify(UMessage)} does.
+     *
+     * @param key     A key, the pair is skipped if it is empty.
+     * @param message A {@link UMessage} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, UMessage message) {
+        if (appendKey(key) && message != null) {
+            appendAttributes(message.getAttributes());
+        }
+        return this;
+    }
+
+    /**
+     * Append {@link UAttributes} value, as {@link Formatter#stringify(UAttributes)} does.
+     *
+     * @param key        A key, the pair is skipped if it is empty.
+     * @param attributes {@link UAttributes} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder append(String key, UAttributes attributes) {
+        if (appendKey(key) && attributes != null) {
+            appendAttributes(attributes);
+        }
+        return this;
+    }
+
+    /**
+     * Append a status of a method, as {@link Formatter#status(String, UStatus, Object...)} does.
+     *
+     * @param method A name of a method.
+     * @param status A {@link UStatus} to append.
+     * @return This builder.
+     */
+    public @NonNull LogBuilder status(@NonNull String method, UStatus status) {
+        appendPairsSeparator();
+        mBuilder.append(Key.STATUS).append('.').append(method).append(Formatter.SEPARATOR_PAIR);
+        appendStatus(status);
+        return this;
+    }
+
+    /**
+     * Build a line and release this builder for reuse by the calling thread.
+     *
+     * @return A formatted string containing appended key-value pairs.
+     */
+    public @NonNull String build() {
+        final String result = mBuilder.toString();
+        mBuilder.setLength(0);
+        if (mBuilder.capacity() > MAX_RETAINED_CAPACITY) {
+            mBuilder = new StringBuilder(INITIAL_CAPACITY);
+        }
+        mInUse = false;
+        return result;
+    }
+
+    @Override
+    public @NonNull String toString() {
+        return mBuilder.toString();
+    }
+
+    private boolean appendKey(String key) {
+        if (key == null || key.isEmpty()) {
+            return false;
+        }
+        appendPairsSeparator();
+        mBuilder.append(key).append(Formatter.SEPARATOR_PAIR);
+        return true;
+    }
+
+    private void appendPairsSeparator() {
+        if (mBuilder.length() > 1) {
+            mBuilder.append(Formatter.SEPARATOR_PAIRS);
+        }
+    }
+
+    private void appendQuotedIfNeeded(String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        final char first = value.charAt(0);
+        if (first != '"' && first != '[' && value.indexOf(' ') >= 0) {
+            appendQuoted(value);
+        } else {
+            mBuilder.append(value);
+        }
+    }
+
+    private void appendQuoted(String value) {
+        mBuilder.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c == '"') {
+                    mBuilder.append('\\');
+                }
+                mBuilder.append(c);
+            }
+        }
+        mBuilder.append('"');
+    }
+
+    private void appendStatus(UStatus status) {
+        if (status == null) {
+            return;
+        }
+        mBuilder.append('[').append(Key.CODE).append(Formatter.SEPARATOR_PAIR).append(status.getCode().name());
+        if (status.hasMessage()) {
+            mBuilder.append(Formatter.SEPARATOR_PAIRS).append(Key.MESSAGE).append(Formatter.SEPARATOR_PAIR);
+            appendQuoted(status.getMessage());
+        }
+        mBuilder.append(']');
+    }
+
+    private void appendAttributes(@NonNull UAttributes attributes) {
+        mBuilder.append('[').append(Key.ID).append(Formatter.SEPARATOR_PAIR);
+        appendUuid(attributes.getId());
+        mBuilder.append(Formatter.SEPARATOR_PAIRS).append(Key.SOURCE).append(Formatter.SEPARATOR_PAIR)
+                .append(Formatter.stringify(attributes.getSource()));
+        if (attributes.hasSink()) {
+            mBuilder.append(Formatter.SEPARATOR_PAIRS).append(Key.SINK).append(Formatter.SEPARATOR_PAIR)
+                    .append(Formatter.stringify(attributes.getSink()));
+        }
+        mBuilder.append(Formatter.SEPARATOR_PAIRS).append(Key.TYPE).append(Formatter.SEPARATOR_PAIR)
+                .append(attributes.getType().name()).append(']');
+    }
+
+    private void appendUuid(UUID id) {
+        if (id == null) {
+            return;
+        }
+        final long msb = id.getMsb();
+        final long lsb = id.getLsb();
+        appendHex(msb >>> 32, 8);
+        mBuilder.append('-');
+        appendHex(msb >>> 16, 4);
+        mBuilder.append('-');
+        appendHex(msb, 4);
+        mBuilder.append('-');
+        appendHex(lsb >>> 48, 4);
+        mBuilder.append('-');
+        appendHex(lsb, 12);
+    }
+
+    private void appendHex(long value, int digits) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            mBuilder.append(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+}
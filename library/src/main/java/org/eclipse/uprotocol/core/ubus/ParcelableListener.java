@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.ubus;
+
+import androidx.annotation.NonNull;
+
+import org.eclipse.uprotocol.v1.internal.ParcelableUMessage;
+
+import java.util.List;
+
+/**
+ * The listener interface to receive messages delivered by the uBus before they are parsed.
+ *
+ * <p>Received messages are not decoded until {@link ParcelableUMessage#getWrapped()} is called,
+ * so a listener can route or drop them based on {@link ParcelableUMessage#getAttributes()} only.
+ */
+public interface ParcelableListener extends BatchListener {
+    void onReceiveParcels(@NonNull List<ParcelableUMessage> messages);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.ubus;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A snapshot of traffic of a topic (or a method for requests) sent and received by a {@link UBusManager}.
+ *
+ * <p>Times are in milliseconds of {@link android.os.SystemClock#elapsedRealtime()}.
+ */
+public final class TopicTraffic {
+    private final long mSentCount;
+    private final long mSentBytes;
+    private final long mLastSentTime;
+    private final long mReceivedCount;
+    private final long mReceivedBytes;
+    private final long mLastReceivedTime;
+    private final long mFirstSeenTime;
+    private final long mSnapshotTime;
+
+    private TopicTraffic(@NonNull Counter counter, long snapshotTime) {
+        mSentCount = counter.mSentCount.sum();
+        mSentBytes = counter.mSentBytes.sum();
+        mLastSentTime = counter.mLastSentTime;
+        mReceivedCount = counter.mReceivedCount.sum();
+        mReceivedBytes = counter.mReceivedBytes.sum();
+        mLastReceivedTime = counter.mLastReceivedTime;
+        mFirstSeenTime = counter.mFirstSeenTime;
+        mSnapshotTime = snapshotTime;
+    }
+
+    public long getSentCount() {
+        return mSentCount;
+    }
+
+    public long getSentBytes() {
+        return mSentBytes;
+    }
+
+    /**
+     * Get the time of the last sent message.
+     *
+     * @return The time, or 0 if nothing was sent.
+     */
+    public long getLastSentTime() {
+        return mLastSentTime;
+    }
+
+    public long getReceivedCount() {
+        return mReceivedCount;
+    }
+
+    public long getReceivedBytes() {
+        return mReceivedBytes;
+    }
+
+    /**
+     * Get the time of the last received message.
+     *
+     * @return The time, or 0 if nothing was received.
+     */
+    public long getLastReceivedTime() {
+        return mLastReceivedTime;
+    }
+
+    /**
+     * Get the average rate of sent messages since the topic was first seen.
+     *
+     * @return The number of messages per second.
+     */
+    public double getSentRate() {
+        return rateOf(mSentCount);
+    }
+
+    /**
+     * Get the average rate of received messages since the topic was first seen.
+     *
+     * @return The number of messages per second.
+     */
+    public double getReceivedRate() {
+        return rateOf(mReceivedCount);
+    }
+
+    private double rateOf(long count) {
+        final long elapsed = Math.max(1, mSnapshotTime - mFirstSeenTime);
+        return (double) count * TimeUnit.SECONDS.toMillis(1) / elapsed;
+    }
+
+    /**
+     * The mutable counter of traffic of a topic, updated without locking.
+     */
+    static final class Counter {
+        private final LongAdder mSentCount = new LongAdder();
+        private final LongAdder mSentBytes = new LongAdder();
+        private final LongAdder mReceivedCount = new LongAdder();
+        private final LongAdder mReceivedBytes = new LongAdder();
+        private final long mFirstSeenTime;
+        private volatile long mLastSentTime;
+        private volatile long mLastReceivedTime;
+
+        Counter(long time) {
+            mFirstSeenTime = time;
+        }
+
+        void onSent(int bytes, long time) {
+            mSentCount.increment();
+            mSentBytes.add(bytes);
+            mLastSentTime = time;
+        }
+
+        void onReceived(int bytes, long time) {
+            mReceivedCount.increment();
+            mReceivedBytes.add(bytes);
+            mLastReceivedTime = time;
+        }
+
+        @NonNull TopicTraffic snapshot(long time) {
+            return new TopicTraffic(this, time);
+        }
+    }
+}
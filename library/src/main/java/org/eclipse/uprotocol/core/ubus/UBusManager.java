@@ -28,14 +28,16 @@ import static android.content.Context.BIND_AUTO_CREATE;
 import static org.eclipse.uprotocol.UPClient.TAG_GROUP;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.checkArgument;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.checkNotNull;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.checkState;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.checkStatusOk;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.isOk;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.toStatus;
 import static org.eclipse.uprotocol.common.util.log.Formatter.join;
 import static org.eclipse.uprotocol.common.util.log.Formatter.status;
-import static org.eclipse.uprotocol.common.util.log.Formatter.stringify;
 import static org.eclipse.uprotocol.common.util.log.Formatter.tag;
+import static org.eclipse.uprotocol.v1.internal.ParcelableSharedUMessage.isShareable;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,8 +46,12 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.ServiceConnection;
+import android.os.BadParcelableException;
 import android.os.Binder;
 import android.os.IBinder;
+import android.os.RemoteException;
+import android.os.SystemClock;
+import android.system.ErrnoException;
 import android.util.Log;
 
 import androidx.annotation.GuardedBy;
@@ -57,21 +63,35 @@ import androidx.annotation.VisibleForTesting;
 import org.eclipse.uprotocol.client.R;
 import org.eclipse.uprotocol.common.UStatusException;
 import org.eclipse.uprotocol.common.util.log.Key;
+import org.eclipse.uprotocol.common.util.log.LogBuilder;
+import org.eclipse.uprotocol.internal.MessageTrace;
 import org.eclipse.uprotocol.transport.UListener;
+import org.eclipse.uprotocol.v1.UAttributes;
 import org.eclipse.uprotocol.v1.UCode;
 import org.eclipse.uprotocol.v1.UEntity;
 import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UMessageType;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.internal.ParcelableSharedUMessage;
 import org.eclipse.uprotocol.v1.internal.ParcelableUEntity;
 import org.eclipse.uprotocol.v1.internal.ParcelableUMessage;
+import org.eclipse.uprotocol.v1.internal.ParcelableUStatus;
 import org.eclipse.uprotocol.v1.internal.ParcelableUUri;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -84,6 +104,12 @@ public final class UBusManager {
     public static final String ACTION_BIND_UBUS = "uprotocol.action.BIND_UBUS";
 
     public static final int FLAG_BLOCK_AUTO_FETCH = 0x00000001;
+    public static final int FLAG_BATCH_DELIVERY = 0x00000002;
+    public static final int FLAG_SHARED_MEMORY_DELIVERY = 0x00000004;
+
+    private static final int BATCH_SIZE_LIMIT = 256 * 1024;
+    private static final int PULL_BATCH_SIZE = 64;
+    private static final int TRAFFIC_TOPICS_LIMIT = 1024;
 
     private static final int REBIND_BACKOFF_EXPONENT_MAX = 5;
     private static final int REBIND_BACKOFF_BASE = 2;
@@ -108,6 +134,11 @@ public final class UBusManager {
     private final ScheduledExecutorService mConnectionExecutor = Executors.newSingleThreadScheduledExecutor();
     private final Object mConnectionLock = new Object();
     private final String mServiceConfig;
+    private final int mSharedMemoryThreshold;
+    private volatile boolean mSharedMemorySupported = true;
+    private volatile boolean mBatchSupported = true;
+    private final MessageTrace mTrace;
+    private final Map<UUri, TopicTraffic.Counter> mTraffic = new ConcurrentHashMap<>();
     private final String mTag;
     private boolean mDebugLoggable;
     private boolean mVerboseLoggable;
@@ -147,6 +178,8 @@ public final class UBusManager {
                     checkStatusOk(registerClient(newService));
                     synchronized (mConnectionLock) {
                         mService = newService;
+                        mSharedMemorySupported = true;
+                        mBatchSupported = true;
                         setConnectionStateLocked(STATE_CONNECTED);
                         completeConnectionLocked(STATUS_OK);
                     }
@@ -223,17 +256,58 @@ public final class UBusManager {
 
     private final IUListener.Stub mServiceListener = new IUListener.Stub() {
         public void onReceive(ParcelableUMessage data) {
-           mListener.onReceive(data.getWrapped());
+            countReceived(data);
+            if (mListener instanceof ParcelableListener parcelableListener) {
+                parcelableListener.onReceiveParcels(List.of(data));
+            } else {
+                mListener.onReceive(data.getWrapped());
+            }
+        }
+
+        public void onReceiveShared(ParcelableSharedUMessage data) {
+            final UMessage message = data.getWrapped();
+            countTraffic(message.getAttributes(), message.getSerializedSize(), false);
+            if (mListener instanceof ParcelableListener parcelableListener) {
+                parcelableListener.onReceiveParcels(List.of(new ParcelableUMessage(message)));
+            } else {
+                mListener.onReceive(message);
+            }
+        }
+
+        public void onReceiveBatch(ParcelableUMessage[] data) {
+            for (ParcelableUMessage parcelable : data) {
+                countReceived(parcelable);
+            }
+            if (mListener instanceof ParcelableListener parcelableListener) {
+                parcelableListener.onReceiveParcels(Arrays.asList(data));
+                return;
+            }
+            final List<UMessage> messages = new ArrayList<>(data.length);
+            for (ParcelableUMessage parcelable : data) {
+                messages.add(parcelable.getWrapped());
+            }
+            if (mListener instanceof BatchListener batchListener) {
+                batchListener.onReceiveBatch(messages);
+            } else {
+                messages.forEach(mListener::onReceive);
+            }
         }
     };
 
     public UBusManager(@NonNull Context context, @NonNull UEntity entity, @NonNull ConnectionCallback callback,
             @NonNull UListener listener) {
+        this(context, entity, callback, listener, null);
+    }
+
+    public UBusManager(@NonNull Context context, @NonNull UEntity entity, @NonNull ConnectionCallback callback,
+            @NonNull UListener listener, @Nullable MessageTrace trace) {
         mContext = requireNonNull(context);
         mEntity = requireNonNull(entity);
         mConnectionCallback = requireNonNull(callback);
         mListener = requireNonNull(listener);
+        mTrace = trace;
         mServiceConfig = mContext.getString(R.string.config_UBusService);
+        mSharedMemoryThreshold = mContext.getResources().getInteger(R.integer.config_SharedMemoryThreshold);
         mTag = tag(entity.getName(), TAG_GROUP);
         mDebugLoggable = Log.isLoggable(mTag, Log.DEBUG);
         mVerboseLoggable = Log.isLoggable(mTag, Log.VERBOSE);
@@ -392,8 +466,8 @@ public final class UBusManager {
     private @NonNull UStatus registerClient(@NonNull IUBus service) {
         UStatus status;
         try {
-            status = service.registerClient(mContext.getPackageName(),
-                    new ParcelableUEntity(mEntity), mClientToken, 0, mServiceListener).getWrapped();
+            status = service.registerClient(mContext.getPackageName(), new ParcelableUEntity(mEntity), mClientToken,
+                    FLAG_BATCH_DELIVERY | FLAG_SHARED_MEMORY_DELIVERY, mServiceListener).getWrapped();
         } catch (Exception e) {
             status = toStatus(e);
         }
@@ -421,16 +495,168 @@ public final class UBusManager {
         UStatus status;
         try {
             checkNotNull(message, "Message is null");
-            status = getServiceOrThrow().send(new ParcelableUMessage(message), mClientToken).getWrapped();
+            status = send(getServiceOrThrow(), message);
         } catch (Exception e) {
             status = toStatus(e);
         }
+        if (mTrace != null && message != null) {
+            mTrace.record(MessageTrace.EVENT_SEND, MessageTrace.REASON_NONE, message.getAttributes(), status.getCode());
+        }
+        if (isOk(status)) {
+            countTraffic(message.getAttributes(), message.getSerializedSize(), true);
+        }
         if (isVerboseLoggable(status)) {
-            Log.println(verboseOrError(status), mTag, status( "send", status, Key.MESSAGE, stringify(message)));
+            Log.println(verboseOrError(status), mTag,
+                    LogBuilder.obtain().status("send", status).append(Key.MESSAGE, message).build());
         }
         return status;
     }
 
+    private @NonNull UStatus send(@NonNull IUBus service, @NonNull UMessage message) throws RemoteException {
+        if (shouldShare(message)) {
+            try (ParcelableSharedUMessage data = new ParcelableSharedUMessage(message)) {
+                final ParcelableUStatus result = service.sendShared(data, mClientToken);
+                if (result != null) {
+                    return result.getWrapped();
+                }
+                // The service does not support shared memory, fall back to an inline payload
+                mSharedMemorySupported = false;
+            } catch (ErrnoException e) {
+                // Shared memory is exhausted for now, fall back to an inline payload
+            }
+        }
+        return service.send(new ParcelableUMessage(message), mClientToken).getWrapped();
+    }
+
+    private boolean shouldShare(@NonNull UMessage message) {
+        return mSharedMemorySupported && isShareable(message, mSharedMemoryThreshold);
+    }
+
+    public @NonNull List<UStatus> sendBatch(@NonNull List<UMessage> messages) {
+        final int count = (messages != null) ? messages.size() : 0;
+        final List<UStatus> statuses = new ArrayList<>(count);
+        try {
+            checkNotNull(messages, "Messages are null");
+            checkArgument(messages.stream().allMatch(Objects::nonNull), "Message is null");
+            final IUBus service = getServiceOrThrow();
+            int start = 0;
+            while (start < messages.size()) {
+                final int end = findBatchEnd(messages, start);
+                if (shouldShare(messages.get(start))) {
+                    statuses.add(send(service, messages.get(start)));
+                } else {
+                    sendBatch(service, messages.subList(start, end), statuses);
+                }
+                start = end;
+            }
+        } catch (Exception e) {
+            // Messages sent before the failure keep their own results
+            statuses.addAll(Collections.nCopies(count - statuses.size(), toStatus(e)));
+        }
+        for (int i = 0; i < statuses.size(); i++) {
+            final UStatus status = statuses.get(i);
+            if (mTrace != null && messages.get(i) != null) {
+                mTrace.record(MessageTrace.EVENT_SEND, MessageTrace.REASON_NONE, messages.get(i).getAttributes(),
+                        status.getCode());
+            }
+            if (isOk(status)) {
+                countTraffic(messages.get(i).getAttributes(), messages.get(i).getSerializedSize(), true);
+            }
+            if (isVerboseLoggable(status)) {
+                Log.println(verboseOrError(status), mTag,
+                        LogBuilder.obtain().status("sendBatch", status).append(Key.MESSAGE, messages.get(i)).build());
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Get traffic statistics of topics sent and received since creation or the last reset.
+     *
+     * <p>Requests are accounted under the method URI, other messages under the source URI. Once the number
+     * of tracked topics reaches its limit, traffic of new topics is accounted under an empty URI.
+     *
+     * @return A map of topic URIs to snapshots of their traffic.
+     */
+    public @NonNull Map<UUri, TopicTraffic> getTrafficStats() {
+        final long time = SystemClock.elapsedRealtime();
+        final Map<UUri, TopicTraffic> stats = new HashMap<>(mTraffic.size());
+        mTraffic.forEach((topic, counter) -> stats.put(topic, counter.snapshot(time)));
+        return stats;
+    }
+
+    /**
+     * Reset traffic statistics of all topics.
+     */
+    public void resetTrafficStats() {
+        mTraffic.clear();
+    }
+
+    private void countReceived(@NonNull ParcelableUMessage message) {
+        try {
+            countTraffic(message.getAttributes(), message.getSerializedSize(), false);
+        } catch (BadParcelableException e) {
+            // Not accounted, it is dropped by the listener
+        }
+    }
+
+    private void countTraffic(@NonNull UAttributes attributes, int size, boolean sent) {
+        final long time = SystemClock.elapsedRealtime();
+        final UUri topic = (attributes.getType() == UMessageType.UMESSAGE_TYPE_REQUEST) ?
+                attributes.getSink() : attributes.getSource();
+        TopicTraffic.Counter counter = mTraffic.get(topic);
+        if (counter == null) {
+            final UUri key = (mTraffic.size() < TRAFFIC_TOPICS_LIMIT) ? topic : UUri.getDefaultInstance();
+            counter = mTraffic.computeIfAbsent(key, it -> new TopicTraffic.Counter(time));
+        }
+        if (sent) {
+            counter.onSent(size, time);
+        } else {
+            counter.onReceived(size, time);
+        }
+    }
+
+    private int findBatchEnd(@NonNull List<UMessage> messages, int start) {
+        int end = start + 1;
+        if (shouldShare(messages.get(start))) {
+            return end; // Sent alone to place its payload in shared memory
+        }
+        int size = messages.get(start).getSerializedSize();
+        while (end < messages.size()) {
+            final UMessage message = messages.get(end);
+            size += message.getSerializedSize();
+            if (size > BATCH_SIZE_LIMIT || shouldShare(message)) {
+                break;
+            }
+            end++;
+        }
+        return end;
+    }
+
+    private void sendBatch(@NonNull IUBus service, @NonNull List<UMessage> messages, @NonNull List<UStatus> statuses)
+            throws RemoteException {
+        final ParcelableUMessage[] data = new ParcelableUMessage[messages.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new ParcelableUMessage(messages.get(i));
+        }
+        if (mBatchSupported) {
+            final ParcelableUStatus[] results = service.sendBatch(data, mClientToken);
+            if (results != null && results.length > 0) {
+                checkState(results.length == data.length, UCode.INTERNAL, "Unexpected number of results");
+                for (ParcelableUStatus result : results) {
+                    statuses.add((result != null) ? result.getWrapped() :
+                            buildStatus(UCode.INTERNAL, "Missing result"));
+                }
+                return;
+            }
+            // The service does not support batching, do not try again until reconnected
+            mBatchSupported = false;
+        }
+        for (ParcelableUMessage message : data) {
+            statuses.add(service.send(message, mClientToken).getWrapped());
+        }
+    }
+
     public @NonNull UStatus enableDispatching(@NonNull UUri uri) {
         UStatus status;
         try {
@@ -439,7 +665,8 @@ public final class UBusManager {
             status = toStatus(e);
         }
         if (isDebugLoggable(status)) {
-            Log.println(debugOrError(status), mTag, status("enableDispatching", status, Key.URI, stringify(uri)));
+            Log.println(debugOrError(status), mTag,
+                    LogBuilder.obtain().status("enableDispatching", status).append(Key.URI, uri).build());
         }
         return status;
     }
@@ -452,7 +679,8 @@ public final class UBusManager {
             status = toStatus(e);
         }
         if (isDebugLoggable(status)) {
-            Log.println(debugOrError(status), mTag, status("disableDispatching", status, Key.URI, stringify(uri)));
+            Log.println(debugOrError(status), mTag,
+                    LogBuilder.obtain().status("disableDispatching", status).append(Key.URI, uri).build());
         }
         return status;
     }
@@ -467,11 +695,50 @@ public final class UBusManager {
                     .pull(new ParcelableUUri(topic), 1, 0, mClientToken);
             return (bundle != null && bundle.length > 0) ? bundle[0].getWrapped() : null;
         } catch (Exception e) {
-            Log.e(mTag, status("getLastMessage", toStatus(e), Key.URI, stringify(topic)));
+            Log.e(mTag, LogBuilder.obtain().status("getLastMessage", toStatus(e)).append(Key.URI, topic).build());
             return null;
         }
     }
 
+    public @NonNull Map<UUri, UMessage> getLastMessages(@NonNull List<UUri> topics) {
+        final Map<UUri, UMessage> messages = new HashMap<>();
+        try {
+            checkNotNull(topics, "Topics are null");
+            final IUBus service = getServiceOrThrow();
+            for (int start = 0; start < topics.size(); start += PULL_BATCH_SIZE) {
+                pullBatch(service, topics.subList(start, Math.min(start + PULL_BATCH_SIZE, topics.size())), messages);
+            }
+        } catch (Exception e) {
+            Log.e(mTag, LogBuilder.obtain().status("getLastMessages", toStatus(e))
+                    .append(Key.COUNT, (topics != null) ? topics.size() : 0).build());
+        }
+        return messages;
+    }
+
+    private void pullBatch(@NonNull IUBus service, @NonNull List<UUri> topics, @NonNull Map<UUri, UMessage> messages)
+            throws RemoteException {
+        final ParcelableUUri[] data = new ParcelableUUri[topics.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new ParcelableUUri(topics.get(i));
+        }
+        final ParcelableUMessage[] results = service.pullBatch(data, 0, mClientToken);
+        if (results == null || results.length != data.length) {
+            // The service does not support batching, fall back to one transaction per topic
+            for (int i = 0; i < data.length; i++) {
+                final ParcelableUMessage[] bundle = service.pull(data[i], 1, 0, mClientToken);
+                if (bundle != null && bundle.length > 0) {
+                    messages.put(topics.get(i), bundle[0].getWrapped());
+                }
+            }
+        } else {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    messages.put(topics.get(i), results[i].getWrapped());
+                }
+            }
+        }
+    }
+
     private boolean isDebugLoggable(@NonNull UStatus status) {
         return mDebugLoggable || !isOk(status);
     }
@@ -23,20 +23,29 @@
  */
 package org.eclipse.uprotocol.core.udiscovery.v3;
 
+import static org.eclipse.uprotocol.common.util.UStatusUtils.isOk;
 import static org.eclipse.uprotocol.rpc.RpcMapper.mapResponse;
 import static org.eclipse.uprotocol.transport.builder.UPayloadBuilder.packToAny;
 
+import org.eclipse.uprotocol.internal.LruCache;
+import org.eclipse.uprotocol.internal.SingleFlight;
 import org.eclipse.uprotocol.rpc.RpcClient;
+import org.eclipse.uprotocol.transport.UListener;
 import org.eclipse.uprotocol.uri.factory.UResourceBuilder;
 import org.eclipse.uprotocol.v1.CallOptions;
 import org.eclipse.uprotocol.v1.UAuthority;
 import org.eclipse.uprotocol.v1.UEntity;
+import org.eclipse.uprotocol.v1.UMessage;
 import org.eclipse.uprotocol.v1.UPriority;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class UDiscovery {
     public static final UEntity SERVICE = UEntity.newBuilder()
@@ -58,6 +67,8 @@ public class UDiscovery {
             .setPriority(UPriority.UPRIORITY_CS4)
             .setTtl(10_000)
             .build();
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final long DEFAULT_CACHE_TTL_MS = 60_000;
 
     private UDiscovery() {}
 
@@ -73,10 +84,40 @@ public class UDiscovery {
         return new UDiscovery.Stub(proxy, authority, options);
     }
 
+    public static UDiscovery.CachingStub newCachingStub(RpcClient proxy) {
+        return newCachingStub(proxy, null, DEFAULT_OPTIONS);
+    }
+
+    public static UDiscovery.CachingStub newCachingStub(RpcClient proxy, UAuthority authority, CallOptions options) {
+        return newCachingStub(proxy, authority, options, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_MS);
+    }
+
+    /**
+     * Create a stub that caches successful lookup and resolve responses.
+     *
+     * <p>The stub does not subscribe to uDiscovery notifications by itself. Unless a caller registers it as a
+     * listener of the notification topic (after {@link Stub#registerForNotifications(NotificationsRequest)}) or
+     * calls {@link CachingStub#invalidate()} on changes, cached responses may be stale for up to
+     * <code>cacheTtlMillis</code>.
+     *
+     * @param proxy          An {@link RpcClient} used to invoke methods.
+     * @param authority      A {@link UAuthority} of the service, or <code>null</code> for a local one.
+     * @param options        {@link CallOptions} used for all calls.
+     * @param cacheSize      The maximum number of cached responses per method.
+     * @param cacheTtlMillis The time in milliseconds after which a cached response expires.
+     * @return A {@link CachingStub}.
+     */
+    public static UDiscovery.CachingStub newCachingStub(RpcClient proxy, UAuthority authority, CallOptions options,
+            int cacheSize, long cacheTtlMillis) {
+        return new UDiscovery.CachingStub(proxy, authority, options, cacheSize, cacheTtlMillis);
+    }
+
     public static class Stub {
         private final RpcClient proxy;
         private final UAuthority authority;
         private final CallOptions options;
+        // Concurrent identical queries share one request
+        private final SingleFlight queries = new SingleFlight();
 
         private Stub(RpcClient proxy, UAuthority authority, CallOptions options) {
             this.proxy = proxy;
@@ -103,7 +144,8 @@ public class UDiscovery {
         }
 
         public CompletionStage<LookupUriResponse> lookupUri(UUri request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_LOOKUP_URI), packToAny(request), options), LookupUriResponse.class);
+            return queries.execute(List.of(METHOD_LOOKUP_URI, request), () ->
+                    mapResponse(proxy.invokeMethod(buildUri(METHOD_LOOKUP_URI), packToAny(request), options), LookupUriResponse.class));
         }
 
         public CompletionStage<UStatus> updateNode(UpdateNodeRequest request) {
@@ -111,11 +153,13 @@ public class UDiscovery {
         }
 
         public CompletionStage<FindNodesResponse> findNodes(FindNodesRequest request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_FIND_NODES), packToAny(request), options), FindNodesResponse.class);
+            return queries.execute(List.of(METHOD_FIND_NODES, request), () ->
+                    mapResponse(proxy.invokeMethod(buildUri(METHOD_FIND_NODES), packToAny(request), options), FindNodesResponse.class));
         }
 
         public CompletionStage<FindNodePropertiesResponse> findNodeProperties(FindNodePropertiesRequest request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_FIND_NODE_PROPERTIES), packToAny(request), options), FindNodePropertiesResponse.class);
+            return queries.execute(List.of(METHOD_FIND_NODE_PROPERTIES, request), () ->
+                    mapResponse(proxy.invokeMethod(buildUri(METHOD_FIND_NODE_PROPERTIES), packToAny(request), options), FindNodePropertiesResponse.class));
         }
 
         public CompletionStage<UStatus> deleteNodes(DeleteNodesRequest request) {
@@ -139,7 +183,77 @@ public class UDiscovery {
         }
 
         public CompletionStage<ResolveUriResponse> resolveUri(ResolveUriRequest request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_RESOLVE_URI), packToAny(request), options), ResolveUriResponse.class);
+            return queries.execute(List.of(METHOD_RESOLVE_URI, request), () ->
+                    mapResponse(proxy.invokeMethod(buildUri(METHOD_RESOLVE_URI), packToAny(request), options), ResolveUriResponse.class));
+        }
+    }
+
+    /**
+     * A {@link Stub} that caches responses of {@link #lookupUri(UUri)} and {@link #resolveUri(ResolveUriRequest)}
+     * for a limited time, evicting least recently used entries when the cache is full. Only responses with an OK
+     * status are cached, so errors like <code>NOT_FOUND</code> are queried again.
+     *
+     * <p>This stub is also a {@link UListener}: once registered for uDiscovery notifications, any received
+     * notification invalidates all cached responses. It is not registered automatically.
+     */
+    public static class CachingStub extends Stub implements UListener {
+        private final LruCache<UUri, LookupUriResponse> lookupCache;
+        private final LruCache<ResolveUriRequest, ResolveUriResponse> resolveCache;
+        private long generation;
+
+        private CachingStub(RpcClient proxy, UAuthority authority, CallOptions options, int cacheSize,
+                long cacheTtlMillis) {
+            super(proxy, authority, options);
+            lookupCache = new LruCache<>(cacheSize, cacheTtlMillis, TimeUnit.MILLISECONDS);
+            resolveCache = new LruCache<>(cacheSize, cacheTtlMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public CompletionStage<LookupUriResponse> lookupUri(UUri request) {
+            return getCachedOrCall(lookupCache, request, super::lookupUri, LookupUriResponse::getStatus);
+        }
+
+        @Override
+        public CompletionStage<ResolveUriResponse> resolveUri(ResolveUriRequest request) {
+            return getCachedOrCall(resolveCache, request, super::resolveUri, ResolveUriResponse::getStatus);
+        }
+
+        private <K, V> CompletionStage<V> getCachedOrCall(LruCache<K, V> cache, K request,
+                Function<K, CompletionStage<V>> call, Function<V, UStatus> statusGetter) {
+            if (request == null) {
+                return call.apply(null);
+            }
+            final long currentGeneration;
+            synchronized (this) {
+                final V response = cache.get(request);
+                if (response != null) {
+                    return CompletableFuture.completedFuture(response);
+                }
+                currentGeneration = generation;
+            }
+            return call.apply(request).thenApply(response -> {
+                synchronized (this) {
+                    // Do not cache an error nor a response that may predate an invalidation
+                    if (generation == currentGeneration && isOk(statusGetter.apply(response))) {
+                        cache.put(request, response);
+                    }
+                }
+                return response;
+            });
+        }
+
+        /**
+         * Discard all cached responses.
+         */
+        public synchronized void invalidate() {
+            generation++;
+            lookupCache.clear();
+            resolveCache.clear();
+        }
+
+        @Override
+        public void onReceive(UMessage message) {
+            invalidate();
         }
     }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.usubscription.v3;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.checkArgument;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.checkNotNull;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.isOk;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.toStatus;
+import static org.eclipse.uprotocol.uri.validator.UriValidator.isEmpty;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+
+import org.eclipse.uprotocol.UPClient;
+import org.eclipse.uprotocol.transport.UListener;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UStatus;
+import org.eclipse.uprotocol.v1.UUri;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A manager of topic subscriptions shared by several listeners of the same client.
+ *
+ * <p>Subscriptions are reference-counted per topic: the first listener of a topic sends a subscribe request
+ * to the uSubscription service, and the last one to leave sends an unsubscribe request. Listeners are
+ * registered with the {@link UPClient} once the subscription succeeds, so dispatching of a topic is enabled
+ * and disabled only once as well.
+ */
+public class SubscriptionManager {
+    private final UPClient mClient;
+    private final USubscription.Stub mStub;
+    private final SubscriberInfo mSubscriber;
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final Map<UUri, TopicSubscription> mSubscriptions = new HashMap<>();
+    @GuardedBy("mLock")
+    private final Map<UUri, CompletableFuture<UStatus>> mUnsubscriptions = new HashMap<>();
+
+    private static class TopicSubscription {
+        final Map<UListener, CompletableFuture<UStatus>> listeners = new IdentityHashMap<>();
+        CompletableFuture<UStatus> result;
+    }
+
+    public SubscriptionManager(@NonNull UPClient client) {
+        this(client, USubscription.newStub(client));
+    }
+
+    public SubscriptionManager(@NonNull UPClient client, @NonNull USubscription.Stub stub) {
+        mClient = client;
+        mStub = stub;
+        mSubscriber = SubscriberInfo.newBuilder()
+                .setUri(client.getUri())
+                .build();
+    }
+
+    /**
+     * Subscribe a listener to a topic.
+     *
+     * <p>Only the first listener of a topic causes a subscribe request, others share its result. If an
+     * unsubscribe request of the topic is still in progress, the subscribe request is sent once it completes.
+     *
+     * @param topic    A {@link UUri} of a topic.
+     * @param listener A {@link UListener} to be registered when the subscription succeeds.
+     * @return A {@link CompletionStage<UStatus>} completed with a result of the subscription and registration
+     *         of this listener.
+     */
+    public @NonNull CompletionStage<UStatus> subscribe(@NonNull UUri topic, @NonNull UListener listener) {
+        try {
+            checkArgument(!isEmpty(topic), "Topic is empty");
+            checkNotNull(listener, "Listener is null");
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(toStatus(e));
+        }
+        final TopicSubscription subscription;
+        final CompletableFuture<UStatus> registration = new CompletableFuture<>();
+        final boolean first;
+        final CompletableFuture<UStatus> unsubscription;
+        synchronized (mLock) {
+            subscription = mSubscriptions.computeIfAbsent(topic, key -> new TopicSubscription());
+            final CompletableFuture<UStatus> existingRegistration = subscription.listeners.get(listener);
+            if (existingRegistration != null) {
+                return existingRegistration.copy();
+            }
+            subscription.listeners.put(listener, registration);
+            first = (subscription.result == null);
+            if (first) {
+                subscription.result = new CompletableFuture<>();
+            }
+            unsubscription = mUnsubscriptions.get(topic);
+        }
+        if (first) {
+            // Not holding the lock, the request may complete synchronously
+            if (unsubscription != null) {
+                unsubscription.whenComplete((status, exception) -> requestSubscription(topic, subscription));
+            } else {
+                requestSubscription(topic, subscription);
+            }
+        }
+        subscription.result
+                .thenApply(status -> isOk(status) ? registerListener(topic, subscription, listener) : status)
+                .whenComplete((status, exception) ->
+                        registration.complete((exception != null) ? toStatus(exception) : status));
+        return registration.copy();
+    }
+
+    private void requestSubscription(@NonNull UUri topic, @NonNull TopicSubscription subscription) {
+        final SubscriptionRequest request = SubscriptionRequest.newBuilder()
+                .setTopic(topic)
+                .setSubscriber(mSubscriber)
+                .build();
+        CompletionStage<SubscriptionResponse> responseStage;
+        try {
+            responseStage = mStub.subscribe(request);
+        } catch (Exception e) {
+            responseStage = CompletableFuture.failedFuture(e);
+        }
+        responseStage.whenComplete((response, exception) -> {
+            final UStatus status;
+            if (exception != null) {
+                status = toStatus(exception);
+            } else {
+                final SubscriptionStatus.State state = response.getStatus().getState();
+                status = (state == SubscriptionStatus.State.SUBSCRIBED ||
+                        state == SubscriptionStatus.State.SUBSCRIBE_PENDING) ? STATUS_OK :
+                        buildStatus(UCode.FAILED_PRECONDITION, "Subscription state is " + state);
+            }
+            if (!isOk(status)) {
+                synchronized (mLock) {
+                    // Let the next listener try again
+                    mSubscriptions.remove(topic, subscription);
+                }
+            }
+            subscription.result.complete(status);
+        });
+    }
+
+    @GuardedBy("mLock")
+    private boolean isSubscribedLocked(@NonNull UUri topic, @NonNull TopicSubscription subscription,
+            @NonNull UListener listener) {
+        return mSubscriptions.get(topic) == subscription && subscription.listeners.containsKey(listener);
+    }
+
+    private @NonNull UStatus registerListener(@NonNull UUri topic, @NonNull TopicSubscription subscription,
+            @NonNull UListener listener) {
+        synchronized (mLock) {
+            if (!isSubscribedLocked(topic, subscription, listener)) {
+                return buildStatus(UCode.CANCELLED, "Unsubscribed before the subscription completed");
+            }
+        }
+        // Registration enables dispatching through the uBus, so it is done without holding the lock
+        final UStatus status = mClient.registerListener(topic, listener);
+        CompletableFuture<UStatus> unsubscription = null;
+        synchronized (mLock) {
+            if (isOk(status)) {
+                if (isSubscribedLocked(topic, subscription, listener)) {
+                    return status;
+                }
+            } else if (subscription.listeners.remove(listener) != null && subscription.listeners.isEmpty()) {
+                unsubscription = removeSubscriptionLocked(topic, subscription);
+            }
+        }
+        if (isOk(status)) {
+            // Unsubscribed while registering
+            mClient.unregisterListener(topic, listener);
+            return buildStatus(UCode.CANCELLED, "Unsubscribed before the subscription completed");
+        }
+        if (unsubscription != null) {
+            requestUnsubscription(topic, subscription, unsubscription);
+        }
+        return status;
+    }
+
+    /**
+     * Unsubscribe a listener from a topic.
+     *
+     * <p>Only the last listener of a topic causes an unsubscribe request. If the subscribe request of
+     * the topic is still pending, the unsubscribe request is sent once it succeeds.
+     *
+     * @param topic    A {@link UUri} of a topic.
+     * @param listener A {@link UListener} to be unregistered.
+     * @return A {@link CompletionStage<UStatus>} completed with a result of the unsubscription.
+     */
+    public @NonNull CompletionStage<UStatus> unsubscribe(@NonNull UUri topic, @NonNull UListener listener) {
+        final TopicSubscription subscription;
+        CompletableFuture<UStatus> unsubscription = null;
+        synchronized (mLock) {
+            subscription = mSubscriptions.get(topic);
+            if (subscription == null || subscription.listeners.remove(listener) == null) {
+                return CompletableFuture.completedFuture(STATUS_OK);
+            }
+            if (subscription.listeners.isEmpty()) {
+                unsubscription = removeSubscriptionLocked(topic, subscription);
+            }
+        }
+        mClient.unregisterListener(topic, listener);
+        if (unsubscription == null) {
+            return CompletableFuture.completedFuture(STATUS_OK);
+        }
+        requestUnsubscription(topic, subscription, unsubscription);
+        return unsubscription.copy();
+    }
+
+    @GuardedBy("mLock")
+    private @NonNull CompletableFuture<UStatus> removeSubscriptionLocked(@NonNull UUri topic,
+            @NonNull TopicSubscription subscription) {
+        mSubscriptions.remove(topic, subscription);
+        // Hold off the next subscribe request of the topic until this one is unsubscribed
+        final CompletableFuture<UStatus> unsubscription = new CompletableFuture<>();
+        mUnsubscriptions.put(topic, unsubscription);
+        return unsubscription;
+    }
+
+    private void requestUnsubscription(@NonNull UUri topic, @NonNull TopicSubscription subscription,
+            @NonNull CompletableFuture<UStatus> unsubscription) {
+        // Nothing to undo if the subscription fails
+        subscription.result
+                .thenCompose(status -> isOk(status) ? requestUnsubscription(topic) :
+                        CompletableFuture.completedFuture(STATUS_OK))
+                .whenComplete((status, exception) -> {
+                    synchronized (mLock) {
+                        mUnsubscriptions.remove(topic, unsubscription);
+                    }
+                    unsubscription.complete((exception != null) ? toStatus(exception) : status);
+                });
+    }
+
+    private @NonNull CompletionStage<UStatus> requestUnsubscription(@NonNull UUri topic) {
+        final UnsubscribeRequest request = UnsubscribeRequest.newBuilder()
+                .setTopic(topic)
+                .setSubscriber(mSubscriber)
+                .build();
+        try {
+            return mStub.unsubscribe(request).handle((status, exception) -> (exception != null) ? toStatus(exception) : status);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(toStatus(e));
+        }
+    }
+
+    /**
+     * Get the number of listeners subscribed to a topic.
+     *
+     * @param topic A {@link UUri} of a topic.
+     * @return The number of listeners, including those waiting for the subscription to complete.
+     */
+    public int getListenerCount(@NonNull UUri topic) {
+        synchronized (mLock) {
+            final TopicSubscription subscription = mSubscriptions.get(topic);
+            return (subscription != null) ? subscription.listeners.size() : 0;
+        }
+    }
+}
@@ -26,6 +26,8 @@ package org.eclipse.uprotocol.core.usubscription.v3;
 import static org.eclipse.uprotocol.rpc.RpcMapper.mapResponse;
 import static org.eclipse.uprotocol.transport.builder.UPayloadBuilder.packToAny;
 
+import org.eclipse.uprotocol.UPClient;
+import org.eclipse.uprotocol.internal.LruCache;
 import org.eclipse.uprotocol.rpc.RpcClient;
 import org.eclipse.uprotocol.uri.factory.UResourceBuilder;
 import org.eclipse.uprotocol.v1.CallOptions;
@@ -36,7 +38,12 @@ import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 
 public class USubscription {
     public static final UEntity SERVICE = UEntity.newBuilder()
@@ -57,6 +64,8 @@ public class USubscription {
             .setPriority(UPriority.UPRIORITY_CS4)
             .setTtl(10_000)
             .build();
+    private static final int DEFAULT_CACHE_SIZE = 256;
+    private static final long DEFAULT_CACHE_TTL_MS = 60_000;
 
     private USubscription() {}
 
@@ -69,18 +78,87 @@ public class USubscription {
     }
 
     public static Stub newStub(RpcClient proxy, UAuthority authority, CallOptions options) {
-        return new Stub(proxy, authority, options);
+        return newStub(proxy, authority, options, DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_MS);
+    }
+
+    /**
+     * Create a stub that caches successful subscribe responses.
+     *
+     * <p>If the proxy is a {@link UPClient}, cached responses are discarded whenever its uBus connection
+     * changes, since the service may have lost its state. Otherwise they may be stale for up to
+     * <code>cacheTtlMillis</code> unless {@link Stub#invalidate()} is called.
+     *
+     * @param proxy          An {@link RpcClient} used to invoke methods.
+     * @param authority      A {@link UAuthority} of the service, or <code>null</code> for a local one.
+     * @param options        {@link CallOptions} used for all calls.
+     * @param cacheSize      The maximum number of cached responses.
+     * @param cacheTtlMillis The time in milliseconds after which a cached response expires.
+     * @return A {@link Stub}.
+     */
+    public static Stub newStub(RpcClient proxy, UAuthority authority, CallOptions options, int cacheSize,
+            long cacheTtlMillis) {
+        return new Stub(proxy, authority, options, cacheSize, cacheTtlMillis);
     }
 
     public static class Stub {
         private final RpcClient proxy;
         private final UAuthority authority;
         private final CallOptions options;
+        private final IntSupplier connectionGeneration;
+        // Subscriptions known to be active, by topic and subscriber
+        private final LruCache<SubscriptionKey, CachedSubscription> subscriptions;
+        private long generation;
+        private int cachedConnectionGeneration;
+
+        private record SubscriptionKey(UUri topic, SubscriberInfo subscriber) {}
 
-        private Stub(RpcClient proxy, UAuthority authority, CallOptions options) {
+        private record CachedSubscription(SubscriptionRequest request, SubscriptionResponse response) {}
+
+        private Stub(RpcClient proxy, UAuthority authority, CallOptions options, int cacheSize, long cacheTtlMillis) {
             this.proxy = proxy;
             this.authority = authority;
             this.options = options;
+            connectionGeneration = (proxy instanceof UPClient client) ? client::getConnectionGeneration : () -> 0;
+            subscriptions = new LruCache<>(cacheSize, cacheTtlMillis, TimeUnit.MILLISECONDS);
+            cachedConnectionGeneration = connectionGeneration.getAsInt();
+        }
+
+        private static SubscriptionKey subscriptionKey(UUri topic, SubscriberInfo subscriber) {
+            return new SubscriptionKey(topic, subscriber);
+        }
+
+        private synchronized void checkConnection() {
+            // The service may have lost its state while the connection was down
+            final int currentGeneration = connectionGeneration.getAsInt();
+            if (cachedConnectionGeneration != currentGeneration) {
+                cachedConnectionGeneration = currentGeneration;
+                invalidate();
+            }
+        }
+
+        private synchronized void cacheSubscription(long expectedGeneration, SubscriptionRequest request,
+                SubscriptionResponse response) {
+            checkConnection();
+            final SubscriptionKey key = subscriptionKey(request.getTopic(), request.getSubscriber());
+            if (response.getStatus().getState() != SubscriptionStatus.State.SUBSCRIBED) {
+                subscriptions.remove(key);
+            } else if (generation == expectedGeneration) {
+                // Not cached if it may predate an unsubscribe or reset
+                subscriptions.put(key, new CachedSubscription(request, response));
+            }
+        }
+
+        private synchronized void uncacheSubscription(UUri topic, SubscriberInfo subscriber) {
+            generation++;
+            subscriptions.remove(subscriptionKey(topic, subscriber));
+        }
+
+        /**
+         * Discard all locally cached subscription states, so the next subscribe requests reach the service.
+         */
+        public synchronized void invalidate() {
+            generation++;
+            subscriptions.clear();
         }
 
         private UUri buildUri(String method) {
@@ -101,16 +179,67 @@ public class USubscription {
             return options;
         }
 
+        /**
+         * Subscribe to a topic.
+         *
+         * <p>If the same request has already succeeded with the {@link SubscriptionStatus.State#SUBSCRIBED}
+         * state, and no unsubscribe request or contradicting state has been seen since, the cached response is
+         * returned without a call to the service. Cached states expire after the time given to
+         * {@link #newStub(RpcClient, UAuthority, CallOptions, int, long)}, one minute by default.
+         */
         public CompletionStage<SubscriptionResponse> subscribe(SubscriptionRequest request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_SUBSCRIBE), packToAny(request), options), SubscriptionResponse.class);
+            final long expectedGeneration;
+            synchronized (this) {
+                checkConnection();
+                final CachedSubscription subscription = (request != null) ?
+                        subscriptions.get(subscriptionKey(request.getTopic(), request.getSubscriber())) : null;
+                if (subscription != null && subscription.request().equals(request)) {
+                    return CompletableFuture.completedFuture(subscription.response());
+                }
+                expectedGeneration = generation;
+            }
+            return mapResponse(proxy.invokeMethod(buildUri(METHOD_SUBSCRIBE), packToAny(request), options), SubscriptionResponse.class)
+                    .thenApply(response -> {
+                        cacheSubscription(expectedGeneration, request, response);
+                        return response;
+                    });
         }
 
         public CompletionStage<UStatus> unsubscribe(UnsubscribeRequest request) {
+            if (request != null) {
+                uncacheSubscription(request.getTopic(), request.getSubscriber());
+            }
             return mapResponse(proxy.invokeMethod(buildUri(METHOD_UNSUBSCRIBE), packToAny(request), options), UStatus.class);
         }
 
         public CompletionStage<FetchSubscriptionsResponse> fetchSubscriptions(FetchSubscriptionsRequest request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_FETCH_SUBSCRIPTIONS), packToAny(request), options), FetchSubscriptionsResponse.class);
+            return mapResponse(proxy.invokeMethod(buildUri(METHOD_FETCH_SUBSCRIPTIONS), packToAny(request), options), FetchSubscriptionsResponse.class)
+                    .thenApply(response -> {
+                        uncacheInactiveSubscriptions(request, response);
+                        return response;
+                    });
+        }
+
+        private synchronized void uncacheInactiveSubscriptions(FetchSubscriptionsRequest request,
+                FetchSubscriptionsResponse response) {
+            if (request == null) {
+                return;
+            }
+            // Forget subscriptions that the service reports as inactive or omits from a reply covering them
+            final Set<SubscriptionKey> activeKeys = response.getSubscriptionsList().stream()
+                    .filter(subscription -> subscription.getStatus().getState() == SubscriptionStatus.State.SUBSCRIBED)
+                    .map(subscription -> subscriptionKey(subscription.getTopic(), subscription.getSubscriber()))
+                    .collect(Collectors.toSet());
+            final Set<SubscriptionKey> reportedKeys = response.getSubscriptionsList().stream()
+                    .map(subscription -> subscriptionKey(subscription.getTopic(), subscription.getSubscriber()))
+                    .collect(Collectors.toSet());
+            final int previousSize = subscriptions.size();
+            subscriptions.removeIf(key -> !activeKeys.contains(key) && (reportedKeys.contains(key) ||
+                    (request.hasTopic() && key.topic().equals(request.getTopic())) ||
+                    (request.hasSubscriber() && key.subscriber().equals(request.getSubscriber()))));
+            if (subscriptions.size() != previousSize) {
+                generation++;
+            }
         }
 
         public CompletionStage<UStatus> createTopic(CreateTopicRequest request) {
@@ -134,6 +263,7 @@ public class USubscription {
         }
 
         public CompletionStage<UStatus> reset(ResetRequest request) {
+            invalidate();
             return mapResponse(proxy.invokeMethod(buildUri(METHOD_RESET), packToAny(request), options), UStatus.class);
         }
     }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.utwin.v2;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.checkArgument;
+import static org.eclipse.uprotocol.uri.validator.UriValidator.isEmpty;
+
+import static java.util.Objects.requireNonNull;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+
+import org.eclipse.uprotocol.common.UStatusException;
+import org.eclipse.uprotocol.internal.TimeoutScheduler;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.UUriBatch;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An aggregator of last message requests to the uTwin service.
+ *
+ * <p>Requests for single topics are collected during a short window and then sent together in one
+ * {@link UTwin.Stub#getLastMessages(UUriBatch)} call, whose response is split back to callers. A batch is
+ * also sent as soon as it reaches a maximum size.
+ *
+ * <p>Windows of all instances are timed by one shared scheduler thread, which stays idle while there are
+ * no pending requests. Batches sent at the end of a window are sent on the given executor.
+ */
+public class LastMessageAggregator {
+    private static final long DEFAULT_WINDOW_MS = 2;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final TimeoutScheduler sScheduler =
+            new TimeoutScheduler("utwin-aggregator", 1, TimeUnit.MILLISECONDS);
+
+    private final UTwin.Stub mStub;
+    private final Executor mExecutor;
+    private final long mWindowNanos;
+    private final int mMaxBatchSize;
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private Map<UUri, CompletableFuture<MessageResponse>> mPendingRequests = new LinkedHashMap<>();
+    @GuardedBy("mLock")
+    private TimeoutScheduler.Timeout mFlushTimeout;
+
+    public LastMessageAggregator(@NonNull UTwin.Stub stub, @NonNull Executor executor) {
+        this(stub, executor, DEFAULT_WINDOW_MS, TimeUnit.MILLISECONDS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public LastMessageAggregator(@NonNull UTwin.Stub stub, @NonNull Executor executor, long window,
+            @NonNull TimeUnit unit, int maxBatchSize) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window is not positive");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size is not positive");
+        }
+        mStub = requireNonNull(stub);
+        mExecutor = requireNonNull(executor);
+        mWindowNanos = unit.toNanos(window);
+        mMaxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Get the last message of a topic.
+     *
+     * @param topic A {@link UUri} of a topic.
+     * @return A {@link CompletionStage<MessageResponse>} completed with a response for that topic, which contains
+     *         either a message or an error status.
+     */
+    public @NonNull CompletionStage<MessageResponse> getLastMessage(@NonNull UUri topic) {
+        try {
+            checkArgument(!isEmpty(topic), "Topic is empty");
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final CompletableFuture<MessageResponse> future;
+        Map<UUri, CompletableFuture<MessageResponse>> batch = null;
+        synchronized (mLock) {
+            future = mPendingRequests.computeIfAbsent(topic, key -> new CompletableFuture<>());
+            if (mPendingRequests.size() >= mMaxBatchSize) {
+                batch = takeBatchLocked();
+            } else if (mFlushTimeout == null) {
+                mFlushTimeout = sScheduler.schedule(this::onWindowEnd, mWindowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        // A copy protects the result shared by requests of the same topic
+        return future.copy();
+    }
+
+    /**
+     * Send pending requests now, without waiting for the window to end.
+     *
+     * <p>The request is sent on the calling thread.
+     */
+    public void flush() {
+        final Map<UUri, CompletableFuture<MessageResponse>> batch;
+        synchronized (mLock) {
+            batch = takeBatchLocked();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Cancel pending requests that have not been sent yet.
+     *
+     * <p>Their callers receive a {@link UCode#CANCELLED} error.
+     */
+    public void close() {
+        final Map<UUri, CompletableFuture<MessageResponse>> batch;
+        synchronized (mLock) {
+            batch = takeBatchLocked();
+        }
+        fail(batch, new UStatusException(UCode.CANCELLED, "Aggregator is closed"));
+    }
+
+    private void onWindowEnd() {
+        // Keep the shared scheduler thread free from transactions
+        try {
+            mExecutor.execute(this::flush);
+        } catch (Exception e) {
+            final Map<UUri, CompletableFuture<MessageResponse>> batch;
+            synchronized (mLock) {
+                batch = takeBatchLocked();
+            }
+            fail(batch, e);
+        }
+    }
+
+    @GuardedBy("mLock")
+    private @NonNull Map<UUri, CompletableFuture<MessageResponse>> takeBatchLocked() {
+        if (mFlushTimeout != null) {
+            mFlushTimeout.cancel();
+            mFlushTimeout = null;
+        }
+        final Map<UUri, CompletableFuture<MessageResponse>> batch = mPendingRequests;
+        mPendingRequests = new LinkedHashMap<>();
+        return batch;
+    }
+
+    private void send(@NonNull Map<UUri, CompletableFuture<MessageResponse>> batch) {
+        try {
+            final UUriBatch request = UUriBatch.newBuilder()
+                    .addAllUris(batch.keySet())
+                    .build();
+            mStub.getLastMessages(request).whenComplete((response, exception) -> {
+                try {
+                    if (exception != null) {
+                        fail(batch, exception);
+                    } else {
+                        dispatch(batch, response);
+                    }
+                } catch (Exception e) {
+                    fail(batch, e);
+                }
+            });
+        } catch (Exception e) {
+            fail(batch, e);
+        }
+    }
+
+    private static void fail(@NonNull Map<UUri, CompletableFuture<MessageResponse>> batch,
+            @NonNull Throwable exception) {
+        batch.values().forEach(future -> future.completeExceptionally(exception));
+    }
+
+    private static void dispatch(@NonNull Map<UUri, CompletableFuture<MessageResponse>> batch,
+            @NonNull GetLastMessagesResponse response) {
+        final Map<UUri, MessageResponse> responses = new HashMap<>();
+        for (MessageResponse messageResponse : response.getResponsesList()) {
+            responses.putIfAbsent(messageResponse.getTopic(), messageResponse);
+        }
+        batch.forEach((topic, future) -> {
+            final MessageResponse messageResponse = responses.get(topic);
+            future.complete((messageResponse != null) ? messageResponse : MessageResponse.newBuilder()
+                    .setTopic(topic)
+                    .setStatus(buildStatus(UCode.NOT_FOUND, "No response for the topic"))
+                    .build());
+        });
+    }
+}
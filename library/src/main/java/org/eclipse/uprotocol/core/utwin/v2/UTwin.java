@@ -26,6 +26,7 @@ package org.eclipse.uprotocol.core.utwin.v2;
 import static org.eclipse.uprotocol.rpc.RpcMapper.mapResponse;
 import static org.eclipse.uprotocol.transport.builder.UPayloadBuilder.packToAny;
 
+import org.eclipse.uprotocol.internal.SingleFlight;
 import org.eclipse.uprotocol.rpc.RpcClient;
 import org.eclipse.uprotocol.uri.factory.UResourceBuilder;
 import org.eclipse.uprotocol.v1.CallOptions;
@@ -37,6 +38,7 @@ import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
 import org.eclipse.uprotocol.v1.UUriBatch;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 
@@ -71,6 +73,8 @@ public class UTwin {
         private final RpcClient proxy;
         private final UAuthority authority;
         private final CallOptions options;
+        // Concurrent identical queries share one request
+        private final SingleFlight queries = new SingleFlight();
 
         private Stub(RpcClient proxy, UAuthority authority, CallOptions options) {
             this.proxy = proxy;
@@ -97,7 +101,8 @@ public class UTwin {
         }
 
         public CompletionStage<GetLastMessagesResponse> getLastMessages(UUriBatch request) {
-            return mapResponse(proxy.invokeMethod(buildUri(METHOD_GET_LAST_MESSAGES), packToAny(request), options), GetLastMessagesResponse.class);
+            return queries.execute(List.of(METHOD_GET_LAST_MESSAGES, request), () ->
+                    mapResponse(proxy.invokeMethod(buildUri(METHOD_GET_LAST_MESSAGES), packToAny(request), options), GetLastMessagesResponse.class));
         }
 
         public CompletionStage<UStatus> setLastMessage(UMessage request) {
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import org.eclipse.uprotocol.uri.serializer.LongUriSerializer;
+import org.eclipse.uprotocol.v1.UUri;
+
+/**
+ * A {@link LongUriSerializer} with a bounded cache of serialized URIs.
+ *
+ * <p>The cache is a direct-mapped table: a lookup is a single array read followed by
+ * an identity or equality check, and a colliding entry simply replaces the previous one.
+ * Entries are immutable, so the table is shared between threads without locking.
+ */
+public final class CachingUriSerializer {
+    private static final int DEFAULT_CACHE_SIZE = 512;
+    private static final CachingUriSerializer sInstance = new CachingUriSerializer(DEFAULT_CACHE_SIZE);
+
+    private final Entry[] mSerialized;
+    private final int mMask;
+
+    private record Entry(UUri uri, String string) {}
+
+    @VisibleForTesting
+    CachingUriSerializer(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("Cache size is not positive");
+        }
+        final int capacity = Integer.highestOneBit(cacheSize - 1) << 1;
+        mSerialized = new Entry[Math.max(capacity, 1)];
+        mMask = mSerialized.length - 1;
+    }
+
+    /**
+     * Get the shared instance.
+     *
+     * @return The {@link CachingUriSerializer} shared by all clients of the process.
+     */
+    public static @NonNull CachingUriSerializer instance() {
+        return sInstance;
+    }
+
+    /**
+     * Serialize a {@link UUri} into a long URI string.
+     *
+     * @param uri A {@link UUri} to serialize.
+     * @return A string, as {@link LongUriSerializer#serialize(UUri)} returns.
+     */
+    public @NonNull String serialize(UUri uri) {
+        if (uri == null) {
+            return LongUriSerializer.instance().serialize(null);
+        }
+        final int index = indexOf(uri.hashCode());
+        final Entry entry = mSerialized[index];
+        if (entry != null && (entry.uri == uri || entry.uri.equals(uri))) {
+            return entry.string;
+        }
+        final String string = LongUriSerializer.instance().serialize(uri);
+        mSerialized[index] = new Entry(uri, string);
+        return string;
+    }
+
+    private int indexOf(int hash) {
+        return (hash ^ (hash >>> 16)) & mMask;
+    }
+}
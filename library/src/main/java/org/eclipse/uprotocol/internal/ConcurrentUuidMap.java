@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A concurrent map keyed by a 128-bit identifier given as two <code>long</code> values, like a UUID.
+ *
+ * <p>Keys are stored unboxed in open-addressing tables with linear probing. The map is split into
+ * stripes, each guarded by its own lock, so operations on different stripes do not contend. Tables
+ * grow with their entries and shrink again as entries are removed, so a burst does not keep its memory.
+ * <code>null</code> values are not supported.
+ *
+ * @param <V> The type of values.
+ */
+public class ConcurrentUuidMap<V> {
+    private static final int DEFAULT_STRIPES = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe<V>[] mStripes;
+    private final int mStripeShift;
+
+    public ConcurrentUuidMap() {
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentUuidMap(int stripes) {
+        if (stripes <= 0 || (stripes & (stripes - 1)) != 0) {
+            throw new IllegalArgumentException("Number of stripes is not a power of 2");
+        }
+        mStripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            mStripes[i] = new Stripe<>();
+        }
+        mStripeShift = Long.SIZE - Integer.numberOfTrailingZeros(stripes);
+    }
+
+    private static long hash(long msb, long lsb) {
+        // The finalizer of MurmurHash3, to spread both halves over all bits
+        long h = msb * 31 + lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private @NonNull Stripe<V> stripeFor(long hash) {
+        // High bits select a stripe, low bits select a slot
+        return (mStripeShift == Long.SIZE) ? mStripes[0] : mStripes[(int) (hash >>> mStripeShift)];
+    }
+
+    /**
+     * Get a value associated with the given key.
+     *
+     * @param msb The most significant bits of the key.
+     * @param lsb The least significant bits of the key.
+     * @return The value, or <code>null</code> if there is no such key.
+     */
+    @VisibleForTesting
+    @Nullable V get(long msb, long lsb) {
+        final long hash = hash(msb, lsb);
+        final Stripe<V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final int index = stripe.indexOf(msb, lsb, hash);
+            return (index >= 0) ? stripe.mValues[index] : null;
+        }
+    }
+
+    /**
+     * Associate a value with the given key if it is not already associated with one.
+     *
+     * @param msb   The most significant bits of the key.
+     * @param lsb   The least significant bits of the key.
+     * @param value A value to be associated.
+     * @return The current value, or <code>null</code> if the given value was added.
+     */
+    public @Nullable V putIfAbsent(long msb, long lsb, @NonNull V value) {
+        requireNonNull(value);
+        final long hash = hash(msb, lsb);
+        final Stripe<V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final int index = stripe.indexOf(msb, lsb, hash);
+            if (index >= 0) {
+                return stripe.mValues[index];
+            }
+            stripe.insert(msb, lsb, hash, value);
+            return null;
+        }
+    }
+
+    /**
+     * Remove a value associated with the given key.
+     *
+     * @param msb The most significant bits of the key.
+     * @param lsb The least significant bits of the key.
+     * @return The removed value, or <code>null</code> if there was no such key.
+     */
+    public @Nullable V remove(long msb, long lsb) {
+        final long hash = hash(msb, lsb);
+        final Stripe<V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final int index = stripe.indexOf(msb, lsb, hash);
+            if (index < 0) {
+                return null;
+            }
+            final V value = stripe.mValues[index];
+            stripe.removeAt(index);
+            return value;
+        }
+    }
+
+    /**
+     * Remove the given key only if it is associated with the given value.
+     *
+     * @param msb   The most significant bits of the key.
+     * @param lsb   The least significant bits of the key.
+     * @param value A value expected to be associated with the key.
+     * @return <code>true</code> if the value was removed.
+     */
+    public boolean remove(long msb, long lsb, @NonNull V value) {
+        final long hash = hash(msb, lsb);
+        final Stripe<V> stripe = stripeFor(hash);
+        synchronized (stripe) {
+            final int index = stripe.indexOf(msb, lsb, hash);
+            if (index < 0 || stripe.mValues[index] != value) {
+                return false;
+            }
+            stripe.removeAt(index);
+            return true;
+        }
+    }
+
+    /**
+     * Remove all values.
+     *
+     * @return A list of removed values.
+     */
+    public @NonNull List<V> removeAll() {
+        final List<V> values = new ArrayList<>();
+        for (Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                for (V value : stripe.mValues) {
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+                stripe.reset(INITIAL_CAPACITY);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The number of entries, which may be outdated by concurrent modifications.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                size += stripe.mSize;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the total number of slots in all tables.
+     *
+     * @return The number of slots, which may be outdated by concurrent modifications.
+     */
+    @VisibleForTesting
+    int capacity() {
+        int capacity = 0;
+        for (Stripe<V> stripe : mStripes) {
+            synchronized (stripe) {
+                capacity += stripe.mValues.length;
+            }
+        }
+        return capacity;
+    }
+
+    private static final class Stripe<V> {
+        @GuardedBy("this")
+        private long[] mMsbs;
+        @GuardedBy("this")
+        private long[] mLsbs;
+        @GuardedBy("this")
+        private V[] mValues;
+        @GuardedBy("this")
+        private int mSize;
+
+        Stripe() {
+            reset(INITIAL_CAPACITY);
+        }
+
+        @SuppressWarnings("unchecked")
+        @GuardedBy("this")
+        void reset(int capacity) {
+            mMsbs = new long[capacity];
+            mLsbs = new long[capacity];
+            mValues = (V[]) new Object[capacity];
+            mSize = 0;
+        }
+
+        @GuardedBy("this")
+        int indexOf(long msb, long lsb, long hash) {
+            final int mask = mValues.length - 1;
+            for (int i = (int) hash & mask; mValues[i] != null; i = (i + 1) & mask) {
+                if (mMsbs[i] == msb && mLsbs[i] == lsb) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @GuardedBy("this")
+        void insert(long msb, long lsb, long hash, @NonNull V value) {
+            // Keep the load factor at most 1/2, so probe sequences stay short
+            if ((mSize + 1) * 2 > mValues.length) {
+                resize(mValues.length * 2);
+            }
+            final int mask = mValues.length - 1;
+            int i = (int) hash & mask;
+            while (mValues[i] != null) {
+                i = (i + 1) & mask;
+            }
+            mMsbs[i] = msb;
+            mLsbs[i] = lsb;
+            mValues[i] = value;
+            mSize++;
+        }
+
+        @GuardedBy("this")
+        void removeAt(int index) {
+            // Shift following entries back instead of leaving a tombstone
+            final int mask = mValues.length - 1;
+            int hole = index;
+            for (int i = (index + 1) & mask; mValues[i] != null; i = (i + 1) & mask) {
+                final int home = (int) hash(mMsbs[i], mLsbs[i]) & mask;
+                // Move the entry if its home slot is not within (hole, i]
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    mMsbs[hole] = mMsbs[i];
+                    mLsbs[hole] = mLsbs[i];
+                    mValues[hole] = mValues[i];
+                    hole = i;
+                }
+            }
+            mValues[hole] = null;
+            mSize--;
+            // Halve the table once the load factor drops to 1/8, so it is at most 1/4 afterwards
+            if (mValues.length > INITIAL_CAPACITY && mSize * 8 <= mValues.length) {
+                resize(mValues.length / 2);
+            }
+        }
+
+        @GuardedBy("this")
+        private void resize(int capacity) {
+            final long[] msbs = mMsbs;
+            final long[] lsbs = mLsbs;
+            final V[] values = mValues;
+            reset(capacity);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    insert(msbs[i], lsbs[i], hash(msbs[i], lsbs[i]), values[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A thread-safe cache with a bounded number of entries, evicted in least recently used order,
+ * and a time to live for each entry.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class LruCache<K, V> {
+    private final int mMaxSize;
+    private final long mTtlNanos;
+    private final LongSupplier mClock;
+    @GuardedBy("this")
+    private final LinkedHashMap<K, Entry<V>> mEntries;
+
+    private record Entry<V>(V value, long expiryTime) {}
+
+    public LruCache(int maxSize, long ttl, @NonNull TimeUnit unit) {
+        this(maxSize, ttl, unit, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    LruCache(int maxSize, long ttl, @NonNull TimeUnit unit, @NonNull LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size is not positive");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live is not positive");
+        }
+        mMaxSize = maxSize;
+        mTtlNanos = unit.toNanos(ttl);
+        mClock = clock;
+        mEntries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > mMaxSize;
+            }
+        };
+    }
+
+    /**
+     * Get a value associated with the given key, if it has not expired.
+     *
+     * @param key A key.
+     * @return The value, or <code>null</code> if there is no such key or its entry has expired.
+     */
+    public synchronized @Nullable V get(@NonNull K key) {
+        final Entry<V> entry = mEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (mClock.getAsLong() - entry.expiryTime() >= 0) {
+            mEntries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Associate a value with the given key, evicting the least recently used entry if the cache is full.
+     *
+     * @param key   A key.
+     * @param value A value.
+     */
+    public synchronized void put(@NonNull K key, @NonNull V value) {
+        mEntries.put(key, new Entry<>(value, mClock.getAsLong() + mTtlNanos));
+    }
+
+    /**
+     * Remove a value associated with the given key.
+     *
+     * @param key A key.
+     */
+    public synchronized void remove(@NonNull K key) {
+        mEntries.remove(key);
+    }
+
+    /**
+     * Remove all values whose keys match the given filter.
+     *
+     * @param filter A {@link Predicate} returning <code>true</code> for keys to be removed.
+     */
+    public synchronized void removeIf(@NonNull Predicate<K> filter) {
+        mEntries.keySet().removeIf(filter);
+    }
+
+    /**
+     * Remove all values.
+     */
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    /**
+     * Get the number of entries, including expired ones that have not been removed yet.
+     *
+     * @return The number of entries.
+     */
+    public synchronized int size() {
+        return mEntries.size();
+    }
+}
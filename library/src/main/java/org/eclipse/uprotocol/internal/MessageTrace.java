@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import org.eclipse.uprotocol.common.util.log.Key;
+import org.eclipse.uprotocol.common.util.log.LogBuilder;
+import org.eclipse.uprotocol.v1.UAttributes;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UMessageType;
+import org.eclipse.uprotocol.v1.UUID;
+import org.eclipse.uprotocol.v1.UUri;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/**
+ * A fixed-size ring buffer of binary records of message events.
+ *
+ * <p>Recording an event takes a few array writes and no allocation, so it can stay enabled in production
+ * to give post-mortem visibility into the message flow. Topics are replaced by compact indexes; only
+ * the first topics seen are remembered, others are dumped as unknown. The oldest records are overwritten
+ * once the buffer is full, and records written concurrently with {@link #dump(PrintWriter)} may be
+ * dumped inconsistently.
+ */
+public class MessageTrace {
+    public static final int EVENT_SEND = 1;
+    public static final int EVENT_RECEIVE = 2;
+    public static final int EVENT_DROP = 3;
+    public static final int EVENT_RPC_COMPLETE = 4;
+
+    public static final int REASON_NONE = 0;
+    public static final int REASON_INVALID = 1;
+    public static final int REASON_EXPIRED = 2;
+    public static final int REASON_WRONG_SINK = 3;
+    public static final int REASON_UNKNOWN_TYPE = 4;
+    public static final int REASON_NO_LISTENER = 5;
+    public static final int REASON_QUEUE_FULL = 6;
+    public static final int REASON_BAD_PARCEL = 7;
+
+    private static final String[] EVENT_NAMES = { "", "send", "receive", "drop", "rpc" };
+    private static final String[] REASON_NAMES = { "", "invalid", "expired", "wrongSink", "unknownType",
+            "noListener", "queueFull", "badParcel" };
+    private static final int RECORD_SIZE = 4;
+    private static final int MAX_TOPICS = 1024;
+    private static final int UNKNOWN_TOPIC = -1;
+
+    private final AtomicLongArray mRecords;
+    private final int mCapacity;
+    private final int mMask;
+    private final AtomicLong mNextRecord = new AtomicLong();
+    private final Map<UUri, Integer> mTopicIndexes = new ConcurrentHashMap<>();
+    private final AtomicInteger mTopicCount = new AtomicInteger();
+    private final AtomicReferenceArray<UUri> mTopics = new AtomicReferenceArray<>(MAX_TOPICS);
+    private final LongSupplier mClock;
+
+    public MessageTrace(int capacity) {
+        this(capacity, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    MessageTrace(int capacity, @NonNull LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity is not positive");
+        }
+        mCapacity = Math.max(Integer.highestOneBit(capacity - 1) << 1, 1);
+        mMask = mCapacity - 1;
+        mRecords = new AtomicLongArray(mCapacity * RECORD_SIZE);
+        mClock = clock;
+    }
+
+    /**
+     * Record an event of a message.
+     *
+     * @param event      One of <code>EVENT_*</code> values.
+     * @param reason     One of <code>REASON_*</code> values.
+     * @param attributes {@link UAttributes} of the message, or <code>null</code> if they are not known.
+     * @param code       A {@link UCode} of the result.
+     */
+    public void record(int event, int reason, @Nullable UAttributes attributes, @NonNull UCode code) {
+        if (attributes == null) {
+            record(event, reason, null, null, code);
+        } else {
+            record(event, reason, attributes.getId(), (attributes.getType() == UMessageType.UMESSAGE_TYPE_REQUEST) ?
+                    attributes.getSink() : attributes.getSource(), code);
+        }
+    }
+
+    /**
+     * Record an event.
+     *
+     * @param event  One of <code>EVENT_*</code> values.
+     * @param reason One of <code>REASON_*</code> values.
+     * @param id     A {@link UUID} of a message, or <code>null</code> if it is not known.
+     * @param topic  A {@link UUri} of a topic or method, or <code>null</code> if it is not known.
+     * @param code   A {@link UCode} of the result.
+     */
+    public void record(int event, int reason, @Nullable UUID id, @Nullable UUri topic, @NonNull UCode code) {
+        final long meta = ((long) (event & 0xFF) << 56) | ((long) (reason & 0xFF) << 48) |
+                ((long) (code.getNumber() & 0xFFFF) << 32) | (indexOf(topic) & 0xFFFFFFFFL);
+        final int base = (int) (mNextRecord.getAndIncrement() & mMask) * RECORD_SIZE;
+        mRecords.lazySet(base, mClock.getAsLong());
+        mRecords.lazySet(base + 1, meta);
+        mRecords.lazySet(base + 2, (id != null) ? id.getMsb() : 0);
+        mRecords.lazySet(base + 3, (id != null) ? id.getLsb() : 0);
+    }
+
+    private int indexOf(@Nullable UUri topic) {
+        if (topic == null) {
+            return UNKNOWN_TOPIC;
+        }
+        final Integer index = mTopicIndexes.get(topic);
+        if (index != null) {
+            return index;
+        }
+        if (mTopicCount.get() >= MAX_TOPICS) {
+            return UNKNOWN_TOPIC;
+        }
+        return mTopicIndexes.computeIfAbsent(topic, key -> {
+            final int newIndex = mTopicCount.getAndIncrement();
+            if (newIndex >= MAX_TOPICS) {
+                return UNKNOWN_TOPIC;
+            }
+            mTopics.set(newIndex, key);
+            return newIndex;
+        });
+    }
+
+    /**
+     * Get the maximum number of records.
+     *
+     * @return The capacity of the buffer.
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Get the number of records currently held.
+     *
+     * @return The number of records, up to the capacity.
+     */
+    public int size() {
+        return (int) Math.min(mNextRecord.get(), mCapacity);
+    }
+
+    /**
+     * Dump records from the oldest to the newest, with times relative to the moment of dumping.
+     *
+     * @param writer A {@link PrintWriter} to write to.
+     */
+    public void dump(@NonNull PrintWriter writer) {
+        final long now = mClock.getAsLong();
+        final long end = mNextRecord.get();
+        final long start = Math.max(0, end - mCapacity);
+        writer.println(LogBuilder.obtain().append(Key.COUNT, end - start).append(Key.SIZE, mCapacity).build());
+        for (long i = start; i < end; i++) {
+            final int base = (int) (i & mMask) * RECORD_SIZE;
+            final long time = mRecords.get(base);
+            final long meta = mRecords.get(base + 1);
+            final int event = (int) (meta >>> 56);
+            final int reason = (int) (meta >>> 48) & 0xFF;
+            final int code = (int) (meta >>> 32) & 0xFFFF;
+            final int topicIndex = (int) meta;
+            final LogBuilder builder = LogBuilder.obtain()
+                    .append(Key.TIME, String.format(Locale.US, "-%.3fms",
+                            (now - time) / (double) TimeUnit.MILLISECONDS.toNanos(1)))
+                    .append(Key.EVENT, nameOf(EVENT_NAMES, event))
+                    .append(Key.ID, UUID.newBuilder().setMsb(mRecords.get(base + 2))
+                            .setLsb(mRecords.get(base + 3)).build())
+                    .append(Key.TOPIC, (topicIndex >= 0 && topicIndex < MAX_TOPICS) ? mTopics.get(topicIndex) : null)
+                    .append(Key.CODE, UCode.forNumber(code));
+            if (reason != REASON_NONE) {
+                builder.append(Key.REASON, nameOf(REASON_NAMES, reason));
+            }
+            writer.println(builder.build());
+        }
+        writer.flush();
+    }
+
+    private static @NonNull String nameOf(@NonNull String[] names, int value) {
+        return (value >= 0 && value < names.length) ? names[value] : Integer.toString(value);
+    }
+}
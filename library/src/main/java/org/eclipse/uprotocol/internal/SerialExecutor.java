@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An {@link Executor} that runs all executed tasks one at a time, in order, on the given {@link Executor}.
+ *
+ * <p>Several instances may share the same underlying executor, so tasks of different instances run in
+ * parallel while tasks of each instance stay ordered. Each instance runs a bounded batch of tasks at a time
+ * and then resubmits itself, so instances take turns when there are fewer threads than instances.
+ *
+ * <p>The number of pending tasks may be bounded, in which case an overflow policy decides what happens
+ * to a task that does not fit. Tasks can be executed with a key, which is reported when such a task is
+ * dropped and is used by {@link #OVERFLOW_KEEP_LATEST} to replace a pending task of the same key.
+ */
+public class SerialExecutor implements Executor {
+    /**
+     * Drop the oldest pending task to make room for a new one.
+     */
+    public static final int OVERFLOW_DROP_OLDEST = 0;
+
+    /**
+     * Drop a new task if there is no room for it.
+     */
+    public static final int OVERFLOW_DROP_NEWEST = 1;
+
+    /**
+     * Replace a pending task of the same key with a new one, otherwise drop the oldest pending task
+     * if there is no room.
+     */
+    public static final int OVERFLOW_KEEP_LATEST = 2;
+
+    /**
+     * Block a caller until there is room for a new task. Tasks executed from a running task of this
+     * instance are never blocked, to avoid a deadlock. Instances sharing a bounded executor may still
+     * block each other, which this instance cannot detect.
+     */
+    public static final int OVERFLOW_BLOCK = 3;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({
+            OVERFLOW_DROP_OLDEST,
+            OVERFLOW_DROP_NEWEST,
+            OVERFLOW_KEEP_LATEST,
+            OVERFLOW_BLOCK,
+    })
+    @Target({ElementType.TYPE_USE, ElementType.PARAMETER})
+    public @interface OverflowPolicy {}
+
+    /**
+     * The listener to be notified when a task is dropped.
+     */
+    public interface DropListener {
+        void onDropped(@Nullable Object key);
+    }
+
+    @VisibleForTesting
+    static final int MAX_DRAIN_BATCH_SIZE = 8;
+
+    private static final class Task {
+        final Object key;
+        Runnable command;
+
+        Task(@Nullable Object key, @NonNull Runnable command) {
+            this.key = key;
+            this.command = command;
+        }
+    }
+
+    private final Executor mExecutor;
+    private final int mCapacity;
+    private final @OverflowPolicy int mPolicy;
+    private final DropListener mDropListener;
+    private final Object mLock = new Object();
+    @GuardedBy("mLock")
+    private final ArrayDeque<Task> mTasks = new ArrayDeque<>();
+    @GuardedBy("mLock")
+    private final Map<Object, Task> mKeyedTasks = new HashMap<>();
+    @GuardedBy("mLock")
+    private boolean mActive;
+    @GuardedBy("mLock")
+    private Thread mDrainThread;
+
+    public SerialExecutor(@NonNull Executor executor) {
+        this(executor, 0, OVERFLOW_DROP_OLDEST, null);
+    }
+
+    /**
+     * Create an instance with a bounded number of pending tasks.
+     *
+     * @param executor     An underlying {@link Executor}.
+     * @param capacity     The maximum number of pending tasks, or 0 for no limit.
+     * @param policy       An overflow policy.
+     * @param dropListener A {@link DropListener} to be notified of dropped tasks.
+     */
+    public SerialExecutor(@NonNull Executor executor, int capacity, @OverflowPolicy int policy,
+            @Nullable DropListener dropListener) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity");
+        }
+        mExecutor = requireNonNull(executor);
+        mCapacity = (capacity > 0) ? capacity : Integer.MAX_VALUE;
+        mPolicy = policy;
+        mDropListener = dropListener;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        execute(null, command);
+    }
+
+    /**
+     * Execute a task associated with a key.
+     *
+     * @param key     A key of the task, or <code>null</code>.
+     * @param command A task to execute.
+     */
+    public void execute(@Nullable Object key, @NonNull Runnable command) {
+        requireNonNull(command);
+        Task droppedTask = null;
+        boolean shouldSchedule = false;
+        synchronized (mLock) {
+            final Task keyedTask = (key != null) ? mKeyedTasks.get(key) : null;
+            if (keyedTask != null) {
+                droppedTask = new Task(key, keyedTask.command);
+                keyedTask.command = command; // Keep the position of the replaced task
+            } else {
+                boolean accepted = true;
+                if (mTasks.size() >= mCapacity) {
+                    switch (mPolicy) {
+                        case OVERFLOW_DROP_NEWEST -> accepted = false;
+                        case OVERFLOW_BLOCK -> accepted = awaitRoomLocked();
+                        default /* OVERFLOW_DROP_OLDEST, OVERFLOW_KEEP_LATEST */ -> {
+                            droppedTask = mTasks.poll();
+                            removeKeyedTaskLocked(droppedTask);
+                        }
+                    }
+                }
+                if (accepted) {
+                    final Task task = new Task(key, command);
+                    mTasks.add(task);
+                    if (key != null && mPolicy == OVERFLOW_KEEP_LATEST) {
+                        mKeyedTasks.put(key, task);
+                    }
+                    shouldSchedule = !mActive;
+                    mActive = true;
+                } else {
+                    droppedTask = new Task(key, command);
+                }
+            }
+        }
+        if (droppedTask != null && mDropListener != null) {
+            mDropListener.onDropped(droppedTask.key);
+        }
+        if (shouldSchedule) {
+            schedule();
+        }
+    }
+
+    @GuardedBy("mLock")
+    private boolean awaitRoomLocked() {
+        while (mTasks.size() >= mCapacity && mDrainThread != Thread.currentThread()) {
+            try {
+                mLock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @GuardedBy("mLock")
+    private void removeKeyedTaskLocked(@Nullable Task task) {
+        if (task != null && task.key != null) {
+            mKeyedTasks.remove(task.key, task);
+        }
+    }
+
+    /**
+     * Get the number of pending tasks.
+     *
+     * @return The number of tasks waiting to be run.
+     */
+    public int size() {
+        synchronized (mLock) {
+            return mTasks.size();
+        }
+    }
+
+    private void schedule() {
+        try {
+            mExecutor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            synchronized (mLock) {
+                mTasks.clear();
+                mKeyedTasks.clear();
+                mActive = false;
+                mLock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void drain() {
+        boolean idle = false;
+        try {
+            for (int i = 0; i < MAX_DRAIN_BATCH_SIZE && !idle; i++) {
+                final Runnable command = poll();
+                if (command != null) {
+                    command.run();
+                } else {
+                    idle = true;
+                }
+            }
+        } finally {
+            if (!idle) {
+                synchronized (mLock) {
+                    mDrainThread = null;
+                }
+                // Keep running remaining tasks after the failed one or after other instances had their turn
+                schedule();
+            }
+        }
+    }
+
+    private @Nullable Runnable poll() {
+        synchronized (mLock) {
+            final Task task = mTasks.poll();
+            if (task == null) {
+                mActive = false;
+                mDrainThread = null;
+                return null;
+            }
+            removeKeyedTaskLocked(task);
+            mDrainThread = Thread.currentThread();
+            if (mPolicy == OVERFLOW_BLOCK) {
+                mLock.notifyAll();
+            }
+            return task.command;
+        }
+    }
+}
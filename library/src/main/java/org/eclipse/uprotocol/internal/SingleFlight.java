@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A coalescer of concurrent identical calls.
+ *
+ * <p>While a call for a key is in flight, other calls for an equal key do not start and share its result
+ * instead. Once the call completes, the next one for that key starts again. This suits idempotent calls
+ * only, like RPC queries.
+ */
+public class SingleFlight {
+    private final Map<Object, CompletableFuture<Object>> mCalls = new ConcurrentHashMap<>();
+
+    /**
+     * Start a call or join the one in flight for an equal key.
+     *
+     * @param key  A key identifying the call, for example a method and a request, with value-based
+     *             <code>equals</code> and <code>hashCode</code>.
+     * @param call A {@link Supplier} starting the call.
+     * @return A {@link CompletionStage} of the call result, distinct for each caller.
+     * @param <T> The type of the result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> @NonNull CompletionStage<T> execute(@NonNull Object key, @NonNull Supplier<CompletionStage<T>> call) {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final CompletableFuture<Object> currentFuture = mCalls.putIfAbsent(key, future);
+        if (currentFuture != null) {
+            return (CompletionStage<T>) currentFuture.copy();
+        }
+        try {
+            call.get().whenComplete((result, exception) -> {
+                // Remove before completing, so callers notified of the result start a new call
+                mCalls.remove(key, future);
+                if (exception != null) {
+                    future.completeExceptionally(exception);
+                } else {
+                    future.complete(result);
+                }
+            });
+        } catch (Exception e) {
+            mCalls.remove(key, future);
+            future.completeExceptionally(e);
+        }
+        // A copy protects the shared result from being completed by a caller
+        return (CompletionStage<T>) future.copy();
+    }
+
+    /**
+     * Get the number of calls in flight.
+     *
+     * @return The number of distinct keys with a call in flight.
+     */
+    public int size() {
+        return mCalls.size();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static java.util.Objects.requireNonNull;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A scheduler of timeouts based on a hashed timing wheel.
+ *
+ * <p>Scheduling and cancelling a timeout take constant time, which suits a large number of timeouts
+ * that are mostly cancelled before they expire, like RPC request deadlines. Timeouts expire on a single
+ * worker thread with a precision of one tick, so tasks are expected to be short and not to throw.
+ * The worker thread is started on demand and waits without ticking while there are no timeouts.
+ * It runs until {@link #shutdown()} is called, which is required before the scheduler is dropped.
+ */
+public class TimeoutScheduler {
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final String mName;
+    private final long mTickNanos;
+    private final LongSupplier mClock;
+    private final long mStartTime;
+    @GuardedBy("this")
+    private final Timeout[] mWheel;
+    private final int mMask;
+    @GuardedBy("this")
+    private long mTick;
+    @GuardedBy("this")
+    private int mPendingCount;
+    @GuardedBy("this")
+    private Thread mWorker;
+    @GuardedBy("this")
+    private boolean mIdle = true;
+
+    /**
+     * A handle of a scheduled task.
+     */
+    public final class Timeout {
+        private final Runnable mTask;
+        private final long mDeadlineTick;
+        @GuardedBy("TimeoutScheduler.this")
+        private Timeout mPrev;
+        @GuardedBy("TimeoutScheduler.this")
+        private Timeout mNext;
+        @GuardedBy("TimeoutScheduler.this")
+        private boolean mScheduled = true;
+
+        private Timeout(@NonNull Runnable task, long deadlineTick) {
+            mTask = task;
+            mDeadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancel this timeout.
+         *
+         * @return <code>true</code> if the task will not run, <code>false</code> if it has already expired
+         *         or been cancelled.
+         */
+        public boolean cancel() {
+            synchronized (TimeoutScheduler.this) {
+                if (!mScheduled) {
+                    return false;
+                }
+                removeLocked(this);
+                return true;
+            }
+        }
+    }
+
+    public TimeoutScheduler(@NonNull String name, long tickDuration, @NonNull TimeUnit unit) {
+        this(name, tickDuration, unit, DEFAULT_WHEEL_SIZE);
+    }
+
+    @VisibleForTesting
+    TimeoutScheduler(@NonNull String name, long tickDuration, @NonNull TimeUnit unit, int wheelSize) {
+        this(name, tickDuration, unit, wheelSize, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    TimeoutScheduler(@NonNull String name, long tickDuration, @NonNull TimeUnit unit, int wheelSize,
+            @NonNull LongSupplier clock) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration is not positive");
+        }
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0) {
+            throw new IllegalArgumentException("Wheel size is not a power of 2");
+        }
+        mName = requireNonNull(name);
+        mTickNanos = unit.toNanos(tickDuration);
+        mWheel = new Timeout[wheelSize];
+        mMask = wheelSize - 1;
+        mClock = requireNonNull(clock);
+        mStartTime = clock.getAsLong();
+    }
+
+    /**
+     * Schedule a task to run after the given delay, rounded up to the next tick.
+     *
+     * @param task  A {@link Runnable} to run on expiration.
+     * @param delay A delay before expiration.
+     * @param unit  A {@link TimeUnit} of the delay.
+     * @return A {@link Timeout} that can be used to cancel the task.
+     */
+    public @NonNull Timeout schedule(@NonNull Runnable task, long delay, @NonNull TimeUnit unit) {
+        requireNonNull(task);
+        final long elapsed = mClock.getAsLong() - mStartTime + unit.toNanos(Math.max(delay, 0));
+        final long tick = (elapsed + mTickNanos - 1) / mTickNanos;
+        synchronized (this) {
+            if (mIdle) {
+                // Nothing is pending, skip ticks passed while waiting
+                mTick = currentTick();
+                mIdle = false;
+                notifyAll();
+            }
+            final Timeout timeout = new Timeout(task, Math.max(tick, mTick + 1));
+            insertLocked(timeout);
+            if (mWorker == null) {
+                mWorker = new Thread(this::run, mName);
+                mWorker.setDaemon(true);
+                mWorker.start();
+            }
+            return timeout;
+        }
+    }
+
+    /**
+     * Get the number of scheduled timeouts.
+     *
+     * @return The number of timeouts that have not expired nor been cancelled.
+     */
+    public synchronized int size() {
+        return mPendingCount;
+    }
+
+    /**
+     * Cancel all scheduled timeouts and stop the worker thread.
+     *
+     * <p>Tasks of cancelled timeouts never run. The scheduler remains usable: a worker thread is
+     * started again on the next {@link #schedule(Runnable, long, TimeUnit)} call.
+     */
+    public synchronized void shutdown() {
+        for (int i = 0; i < mWheel.length; i++) {
+            Timeout timeout = mWheel[i];
+            while (timeout != null) {
+                final Timeout next = timeout.mNext;
+                timeout.mPrev = null;
+                timeout.mNext = null;
+                timeout.mScheduled = false;
+                timeout = next;
+            }
+            mWheel[i] = null;
+        }
+        mPendingCount = 0;
+        mIdle = true;
+        if (mWorker != null) {
+            mWorker.interrupt();
+            mWorker = null;
+        }
+        notifyAll();
+    }
+
+    @VisibleForTesting
+    synchronized long getTick() {
+        return mTick;
+    }
+
+    @VisibleForTesting
+    synchronized boolean isRunning() {
+        return mWorker != null;
+    }
+
+    private long currentTick() {
+        return (mClock.getAsLong() - mStartTime) / mTickNanos;
+    }
+
+    @GuardedBy("this")
+    private void insertLocked(@NonNull Timeout timeout) {
+        final int index = (int) (timeout.mDeadlineTick & mMask);
+        final Timeout head = mWheel[index];
+        timeout.mNext = head;
+        if (head != null) {
+            head.mPrev = timeout;
+        }
+        mWheel[index] = timeout;
+        mPendingCount++;
+    }
+
+    @GuardedBy("this")
+    private void removeLocked(@NonNull Timeout timeout) {
+        if (timeout.mPrev != null) {
+            timeout.mPrev.mNext = timeout.mNext;
+        } else {
+            mWheel[(int) (timeout.mDeadlineTick & mMask)] = timeout.mNext;
+        }
+        if (timeout.mNext != null) {
+            timeout.mNext.mPrev = timeout.mPrev;
+        }
+        timeout.mPrev = null;
+        timeout.mNext = null;
+        timeout.mScheduled = false;
+        mPendingCount--;
+    }
+
+    @GuardedBy("this")
+    private void expireLocked(long tick, @NonNull List<Runnable> tasks) {
+        Timeout timeout = mWheel[(int) (tick & mMask)];
+        while (timeout != null) {
+            final Timeout next = timeout.mNext;
+            // The same bucket also holds timeouts of later rounds
+            if (timeout.mDeadlineTick <= tick) {
+                removeLocked(timeout);
+                tasks.add(timeout.mTask);
+            }
+            timeout = next;
+        }
+    }
+
+    private void run() {
+        final Thread worker = Thread.currentThread();
+        final List<Runnable> tasks = new ArrayList<>();
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (mWorker != worker) {
+                        return;
+                    }
+                    if (mPendingCount == 0) {
+                        mIdle = true;
+                        while (mIdle && mWorker == worker) {
+                            wait();
+                        }
+                        continue;
+                    }
+                    final long delay = mStartTime + (mTick + 1) * mTickNanos - mClock.getAsLong();
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, delay);
+                        continue;
+                    }
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                mTick++;
+                expireLocked(mTick, tasks);
+            }
+            for (Runnable task : tasks) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Keep the worker alive for other timeouts
+                }
+            }
+            tasks.clear();
+        }
+    }
+}
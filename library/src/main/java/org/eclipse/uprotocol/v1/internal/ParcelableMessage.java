@@ -27,21 +27,48 @@ import android.os.BadParcelableException;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 
+import java.io.IOException;
 import java.util.Objects;
 
 /**
  * A parcelable wrapper base for protobuf messages.
  */
 public abstract class ParcelableMessage<T extends Message> implements Parcelable {
-    protected final T mMessage;
+    private static final int BUFFER_SIZE_INITIAL = 1024;
+    private static final int BUFFER_SIZE_MAX = 64 * 1024;
+    private static final ThreadLocal<byte[]> sBuffer = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE_INITIAL]);
+
+    private volatile T mMessage;
+    @GuardedBy("this")
+    private byte[] mData;
 
     protected ParcelableMessage(@NonNull Parcel in) {
-        mMessage = readFromParcel(in);
+        this(in, false);
+    }
+
+    /**
+     * Create an instance from a {@link Parcel}.
+     *
+     * @param in   A {@link Parcel} to read from.
+     * @param lazy If <code>true</code>, only serialized data is read and it will be parsed
+     *             on the first {@link #getWrapped()} call.
+     */
+    protected ParcelableMessage(@NonNull Parcel in, boolean lazy) {
+        final byte[] data = readFromParcel(in);
+        if (lazy) {
+            mData = data;
+        } else {
+            mMessage = parseOrThrow(data);
+        }
     }
 
     protected ParcelableMessage(@NonNull T message) {
@@ -50,16 +77,51 @@ public abstract class ParcelableMessage<T extends Message> implements Parcelable
 
     @Override
     public void writeToParcel(@NonNull Parcel out, int flags) {
-        final byte[] data = mMessage.toByteArray();
-        out.writeInt(data.length);
-        out.writeByteArray(data);
+        final byte[] data = getData();
+        if (data != null) {
+            out.writeInt(data.length);
+            out.writeByteArray(data);
+            return;
+        }
+        final T message = mMessage;
+        final int size = message.getSerializedSize();
+        final byte[] buffer = obtainBuffer(size);
+        try {
+            final CodedOutputStream output = CodedOutputStream.newInstance(buffer, 0, size);
+            message.writeTo(output);
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new BadParcelableException(e.getMessage());
+        }
+        out.writeInt(size);
+        out.writeByteArray(buffer, 0, size);
+    }
+
+    private static @NonNull byte[] obtainBuffer(int size) {
+        if (size > BUFFER_SIZE_MAX) {
+            return new byte[size]; // Too large to be retained by the thread
+        }
+        byte[] buffer = sBuffer.get();
+        if (buffer.length < size) {
+            buffer = new byte[Math.min(BUFFER_SIZE_MAX, Math.max(size, buffer.length * 2))];
+            sBuffer.set(buffer);
+        }
+        return buffer;
     }
 
-    private @NonNull T readFromParcel(@NonNull Parcel in) {
+    private static @NonNull byte[] readFromParcel(@NonNull Parcel in) {
         try {
             final int size = in.readInt();
             final byte[] data = new byte[size];
             in.readByteArray(data);
+            return data;
+        } catch (Exception e) {
+            throw new BadParcelableException(e.getMessage());
+        }
+    }
+
+    private @NonNull T parseOrThrow(@NonNull byte[] data) {
+        try {
             return parse(data);
         } catch (Exception e) {
             throw new BadParcelableException(e.getMessage());
@@ -68,8 +130,58 @@ public abstract class ParcelableMessage<T extends Message> implements Parcelable
 
     protected abstract @NonNull T parse(byte[] data) throws InvalidProtocolBufferException;
 
+    /**
+     * Create an input stream to parse a message from a given data without copying its bytes fields.
+     *
+     * <p>Parsed bytes fields share the content of <code>data</code>, so it must not be modified afterward.
+     *
+     * @param data A serialized message.
+     * @return A {@link CodedInputStream} with aliasing enabled.
+     */
+    protected static @NonNull CodedInputStream newAliasingInput(@NonNull byte[] data) {
+        final CodedInputStream input = CodedInputStream.newInstance(data);
+        input.enableAliasing(true);
+        return input;
+    }
+
+    /**
+     * Get serialized data of a message that has not been parsed yet.
+     *
+     * @return A serialized message, or <code>null</code> if it is already parsed.
+     */
+    protected synchronized @Nullable byte[] getData() {
+        return mData;
+    }
+
+    /**
+     * Get the wrapped message, parsing it first if it was read lazily.
+     *
+     * @return A wrapped message.
+     * @throws BadParcelableException If serialized data cannot be parsed.
+     */
     public @NonNull T getWrapped() {
-        return mMessage;
+        T message = mMessage;
+        if (message == null) {
+            synchronized (this) {
+                message = mMessage;
+                if (message == null) {
+                    message = parseOrThrow(mData);
+                    mMessage = message;
+                    mData = null;
+                }
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Get the size of the serialized message, without parsing it if it was read lazily.
+     *
+     * @return The number of bytes of the serialized message.
+     */
+    public int getSerializedSize() {
+        final byte[] data = getData();
+        return (data != null) ? data.length : getWrapped().getSerializedSize();
     }
 
     public int describeContents() {
@@ -78,7 +190,7 @@ public abstract class ParcelableMessage<T extends Message> implements Parcelable
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(mMessage);
+        return Objects.hashCode(getWrapped());
     }
 
     @Override
@@ -89,6 +201,6 @@ public abstract class ParcelableMessage<T extends Message> implements Parcelable
         if (!(object instanceof ParcelableMessage<?> other)) {
             return false;
         }
-        return Objects.equals(mMessage, other.mMessage);
+        return Objects.equals(getWrapped(), other.getWrapped());
     }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.v1.internal;
+
+import android.os.BadParcelableException;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SharedMemory;
+import android.system.ErrnoException;
+import android.system.OsConstants;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+
+import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UPayload;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A parcelable wrapper for {@link UMessage} which payload value is passed in a {@link SharedMemory} region.
+ *
+ * <p>Only a file descriptor of the region goes through a binder transaction, so large payloads are neither
+ * limited by the transaction buffer size nor copied into it. A receiver maps the region read-only and
+ * the payload value of the wrapped message refers to that mapping directly.
+ */
+public final class ParcelableSharedUMessage implements Parcelable, AutoCloseable {
+    private static final String NAME = "UMessagePayload";
+
+    public static final Creator<ParcelableSharedUMessage> CREATOR = new Creator<>() {
+        public ParcelableSharedUMessage createFromParcel(Parcel in) {
+            return new ParcelableSharedUMessage(in);
+        }
+
+        public ParcelableSharedUMessage[] newArray(int size) {
+            return new ParcelableSharedUMessage[size];
+        }
+    };
+
+    private final ParcelableUMessage mHeader;
+    private final SharedMemory mSharedMemory;
+    private final int mSize;
+    private final UMessage mMessage;
+
+    private ParcelableSharedUMessage(@NonNull Parcel in) {
+        mHeader = ParcelableUMessage.CREATOR.createFromParcel(in);
+        mSharedMemory = null;
+        mSize = in.readInt();
+        try (SharedMemory sharedMemory = SharedMemory.CREATOR.createFromParcel(in)) {
+            if (mSize < 0 || mSize > sharedMemory.getSize()) {
+                throw new BadParcelableException("Wrong payload size " + mSize);
+            }
+            // The mapping stays valid after the descriptor is closed and is released with the buffer
+            final ByteBuffer buffer = sharedMemory.mapReadOnly();
+            buffer.limit(mSize);
+            final UMessage header = mHeader.getWrapped();
+            mMessage = UMessage.newBuilder(header)
+                    .setPayload(UPayload.newBuilder(header.getPayload())
+                            .setValue(UnsafeByteOperations.unsafeWrap(buffer)))
+                    .build();
+        } catch (ErrnoException e) {
+            throw new BadParcelableException(e.getMessage());
+        }
+    }
+
+    /**
+     * Create an instance placing a payload value of a given message in a new {@link SharedMemory} region.
+     *
+     * <p>The region should be released with {@link #close()} once the instance is sent.
+     *
+     * @param message A {@link UMessage} with a payload value.
+     * @throws ErrnoException If a shared memory region cannot be created.
+     */
+    public ParcelableSharedUMessage(@NonNull UMessage message) throws ErrnoException {
+        final ByteString value = message.getPayload().getValue();
+        mHeader = new ParcelableUMessage(UMessage.newBuilder(message)
+                .setPayload(UPayload.newBuilder(message.getPayload()).clearValue())
+                .build());
+        mSize = value.size();
+        mSharedMemory = SharedMemory.create(NAME, Math.max(mSize, 1)); // Empty regions are not allowed
+        try {
+            final ByteBuffer buffer = mSharedMemory.mapReadWrite();
+            try {
+                value.copyTo(buffer);
+            } finally {
+                SharedMemory.unmap(buffer);
+            }
+            mSharedMemory.setProtect(OsConstants.PROT_READ);
+        } catch (ErrnoException | RuntimeException e) {
+            // Nobody else can release the region of a failed instance
+            mSharedMemory.close();
+            throw e;
+        }
+        mMessage = message;
+    }
+
+    /**
+     * Check whether a payload value of a given message should be passed in a {@link SharedMemory} region.
+     *
+     * @param message   A {@link UMessage} to check.
+     * @param threshold A minimum size of a payload value in bytes, or a non-positive value to disable sharing.
+     * @return <code>true</code> if a payload value is at least of the threshold size.
+     */
+    public static boolean isShareable(@Nullable UMessage message, int threshold) {
+        if (message == null || threshold <= 0) {
+            return false;
+        }
+        final UPayload payload = message.getPayload();
+        return payload.hasValue() && payload.getValue().size() >= threshold;
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel out, int flags) {
+        if (mSharedMemory == null) {
+            throw new IllegalStateException("Shared memory is not owned by this instance");
+        }
+        mHeader.writeToParcel(out, flags);
+        out.writeInt(mSize);
+        mSharedMemory.writeToParcel(out, flags);
+    }
+
+    @Override
+    public int describeContents() {
+        return CONTENTS_FILE_DESCRIPTOR;
+    }
+
+    /**
+     * Get the wrapped message.
+     *
+     * @return A wrapped message.
+     */
+    public @NonNull UMessage getWrapped() {
+        return mMessage;
+    }
+
+    /**
+     * Release a shared memory region created by this instance.
+     */
+    @Override
+    public void close() {
+        if (mSharedMemory != null) {
+            mSharedMemory.close();
+        }
+    }
+}
@@ -56,6 +56,6 @@ public final class ParcelableUEntity extends ParcelableMessage<UEntity> {
 
     @Override
     protected @NonNull UEntity parse(@NonNull byte[] data) throws InvalidProtocolBufferException {
-        return UEntity.parseFrom(data);
+        return UEntity.parser().parseFrom(newAliasingInput(data));
     }
 }
@@ -23,16 +23,26 @@
  */
 package org.eclipse.uprotocol.v1.internal;
 
+import android.os.BadParcelableException;
 import android.os.Parcel;
 
 import androidx.annotation.NonNull;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
 
+import org.eclipse.uprotocol.v1.UAttributes;
 import org.eclipse.uprotocol.v1.UMessage;
 
+import java.io.IOException;
+
 /**
  * A parcelable wrapper for {@link UMessage}.
+ *
+ * <p>An instance created from a {@link Parcel} parses the message lazily, so
+ * {@link #getAttributes()} can be used to inspect attributes without decoding a payload.
  */
 public final class ParcelableUMessage extends ParcelableMessage<UMessage> {
 
@@ -46,8 +56,13 @@ public final class ParcelableUMessage extends ParcelableMessage<UMessage> {
         }
     };
 
+    private static final int TAG_ATTRIBUTES =
+            (UMessage.ATTRIBUTES_FIELD_NUMBER << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    private volatile UAttributes mAttributes;
+
     private ParcelableUMessage(@NonNull Parcel in) {
-        super(in);
+        super(in, true);
     }
 
     public ParcelableUMessage(@NonNull UMessage message) {
@@ -56,6 +71,45 @@ public final class ParcelableUMessage extends ParcelableMessage<UMessage> {
 
     @Override
     protected @NonNull UMessage parse(@NonNull byte[] data) throws InvalidProtocolBufferException {
-        return UMessage.parseFrom(data);
+        return UMessage.parser().parseFrom(newAliasingInput(data));
+    }
+
+    /**
+     * Get attributes of the wrapped message.
+     *
+     * <p>If the message has not been parsed yet, only its attributes are decoded.
+     *
+     * @return A {@link UAttributes} of the wrapped message.
+     * @throws BadParcelableException If serialized data cannot be parsed.
+     */
+    public @NonNull UAttributes getAttributes() {
+        UAttributes attributes = mAttributes;
+        if (attributes == null) {
+            final byte[] data = getData();
+            attributes = (data != null) ? parseAttributes(data) : getWrapped().getAttributes();
+            mAttributes = attributes;
+        }
+        return attributes;
+    }
+
+    private static @NonNull UAttributes parseAttributes(@NonNull byte[] data) {
+        try {
+            final CodedInputStream input = newAliasingInput(data);
+            UAttributes attributes = UAttributes.getDefaultInstance();
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                if (tag == TAG_ATTRIBUTES) {
+                    // Multiple occurrences of a singular message field are merged
+                    final UAttributes.Builder builder = attributes.toBuilder();
+                    input.readMessage(builder, ExtensionRegistryLite.getEmptyRegistry());
+                    attributes = builder.build();
+                } else if (!input.skipField(tag)) {
+                    break;
+                }
+            }
+            return attributes;
+        } catch (IOException e) {
+            throw new BadParcelableException(e.getMessage());
+        }
     }
 }
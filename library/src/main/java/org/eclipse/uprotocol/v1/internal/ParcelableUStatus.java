@@ -56,6 +56,6 @@ public final class ParcelableUStatus extends ParcelableMessage<UStatus> {
 
     @Override
     protected @NonNull UStatus parse(@NonNull byte[] data) throws InvalidProtocolBufferException {
-        return UStatus.parseFrom(data);
+        return UStatus.parser().parseFrom(newAliasingInput(data));
     }
 }
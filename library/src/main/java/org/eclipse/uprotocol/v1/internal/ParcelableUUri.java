@@ -56,6 +56,6 @@ public final class ParcelableUUri extends ParcelableMessage<UUri> {
 
     @Override
     protected @NonNull UUri parse(@NonNull byte[] data) throws InvalidProtocolBufferException {
-        return UUri.parseFrom(data);
+        return UUri.parser().parseFrom(newAliasingInput(data));
     }
 }
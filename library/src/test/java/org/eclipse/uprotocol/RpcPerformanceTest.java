@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.core.ubus.UBusManager;
+import org.eclipse.uprotocol.internal.ConcurrentUuidMap;
+import org.eclipse.uprotocol.transport.builder.UAttributesBuilder;
+import org.eclipse.uprotocol.v1.UMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.Shadows;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+@RunWith(AndroidJUnit4.class)
+@SuppressWarnings("java:S2699")
+public class RpcPerformanceTest extends TestBase {
+    private static final long SEND_NANOS = 20_000;
+    private static final int CALLS_PER_CALLER = 500;
+    private static final List<Integer> CALLERS = List.of(1, 4, 16);
+
+    private UPClient mClient;
+
+    private interface Call {
+        void run(int index);
+    }
+
+    @Before
+    public void setUp() {
+        final Context context = RuntimeEnvironment.getApplication();
+        Shadows.shadowOf(context.getPackageManager())
+                .installPackage(buildPackageInfo(context.getPackageName(), buildMetadata(CLIENT)));
+        final UBusManager manager = mock(UBusManager.class, withSettings().stubOnly());
+        mClient = new UPClient(context, CLIENT, manager, Runnable::run, null);
+        doAnswer(invocation -> {
+            final UMessage requestMessage = invocation.getArgument(0);
+            simulateTransaction();
+            mClient.getListener().onReceive(buildMessage(PAYLOAD,
+                    UAttributesBuilder.response(requestMessage.getAttributes()).build()));
+            return STATUS_OK;
+        }).when(manager).send(any());
+    }
+
+    private static void simulateTransaction() {
+        LockSupport.parkNanos(SEND_NANOS);
+    }
+
+    private static float runCallers(int callers, @NonNull Call call) {
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < CALLS_PER_CALLER; j++) {
+                        call.run(j);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    doneLatch.countDown();
+                }
+            }).start();
+        }
+        final long start = System.nanoTime();
+        startLatch.countDown();
+        try {
+            doneLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        final long end = System.nanoTime();
+        return (float) callers * CALLS_PER_CALLER * 1_000_000_000L / (float) (end - start);
+    }
+
+    private static void runSendAfterPut(@NonNull ConcurrentUuidMap<CompletableFuture<UMessage>> requests) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long msb = random.nextLong();
+        final long lsb = random.nextLong();
+        requests.putIfAbsent(msb, lsb, new CompletableFuture<>());
+        simulateTransaction();
+        requests.remove(msb, lsb);
+    }
+
+    private static void printTableHeader(@NonNull String title) {
+        System.out.println(title + ":");
+        System.out.println(" Callers  Calls/sec     Method");
+        System.out.println("-----------------------------------------");
+    }
+
+    private static void printTableRow(int callers, float throughput, @NonNull String method) {
+        System.out.printf("%8d %10.0f   %s%n", callers, throughput, method);
+    }
+
+    @Test
+    public void testPerformanceRequestRegistration() {
+        printTableHeader("Request registration");
+        final ConcurrentUuidMap<CompletableFuture<UMessage>> requests = new ConcurrentUuidMap<>();
+        for (int callers : CALLERS) {
+            printTableRow(callers, runCallers(callers, index -> runSendAfterPut(requests)), "Send after putIfAbsent");
+        }
+    }
+
+    @Test
+    public void testPerformanceInvokeMethod() {
+        printTableHeader("UPClient.invokeMethod");
+        for (int callers : CALLERS) {
+            printTableRow(callers, runCallers(callers, index ->
+                    mClient.invokeMethod(METHOD_URI, PAYLOAD, OPTIONS).toCompletableFuture().join()), "invokeMethod");
+        }
+    }
+}
@@ -28,16 +28,20 @@ import static org.eclipse.uprotocol.client.BuildConfig.VERSION_NAME;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.toStatus;
+import static org.eclipse.uprotocol.common.util.log.Formatter.stringify;
 import static org.eclipse.uprotocol.transport.builder.UPayloadBuilder.packToAny;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -56,14 +60,18 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.os.Handler;
+import android.os.Parcel;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Int32Value;
 
 import org.eclipse.uprotocol.UPClient.ServiceLifecycleListener;
+import org.eclipse.uprotocol.core.ubus.BatchListener;
+import org.eclipse.uprotocol.core.ubus.ParcelableListener;
 import org.eclipse.uprotocol.core.ubus.UBusManager;
 import org.eclipse.uprotocol.transport.UListener;
 import org.eclipse.uprotocol.transport.builder.UAttributesBuilder;
@@ -76,8 +84,10 @@ import org.eclipse.uprotocol.v1.UMessage;
 import org.eclipse.uprotocol.v1.UMessageType;
 import org.eclipse.uprotocol.v1.UPayload;
 import org.eclipse.uprotocol.v1.UPriority;
+import org.eclipse.uprotocol.v1.UResource;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.internal.ParcelableUMessage;
 import org.eclipse.uprotocol.validation.ValidationResult;
 import org.junit.Before;
 import org.junit.Test;
@@ -89,7 +99,14 @@ import org.robolectric.Shadows;
 import org.robolectric.shadows.ShadowLog;
 import org.robolectric.shadows.ShadowPackageManager;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -153,6 +170,60 @@ public class UPClientTest extends TestBase {
         assertNotNull(UPClient.create(mContext, SERVICE, mExecutor, mServiceLifecycleListener));
     }
 
+    @Test
+    public void testCreateWithOptions() {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setDispatchLanes(4)
+                .setDispatchMode(UPClient.Options.DISPATCH_BY_LISTENER)
+                .build();
+        assertNotNull(UPClient.create(mContext, SERVICE, mExecutor, mServiceLifecycleListener, options));
+    }
+
+    @Test
+    public void testOptions() {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setDispatchLanes(2)
+                .setDispatchMode(UPClient.Options.DISPATCH_BY_LISTENER)
+                .build();
+        assertEquals(2, options.getDispatchLanes());
+        assertEquals(UPClient.Options.DISPATCH_BY_LISTENER, options.getDispatchMode());
+        assertEquals(0, UPClient.Options.DEFAULT.getDispatchLanes());
+        assertEquals(UPClient.Options.DISPATCH_BY_TOPIC, UPClient.Options.DEFAULT.getDispatchMode());
+    }
+
+    @Test
+    public void testOptionsWithInvalidArgument() {
+        final UPClient.Options.Builder builder = new UPClient.Options.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.setDispatchLanes(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.setDispatchMode(2));
+        assertThrows(IllegalArgumentException.class, () -> builder.setQueueCapacity(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.setOverflowPolicy(-1));
+        assertThrows(IllegalArgumentException.class, () -> builder.setOverflowPolicy(4));
+    }
+
+    @Test
+    public void testOptionsQueue() {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setQueueCapacity(16)
+                .setOverflowPolicy(UPClient.Options.OVERFLOW_KEEP_LATEST)
+                .build();
+        assertEquals(16, options.getQueueCapacity());
+        assertEquals(UPClient.Options.OVERFLOW_KEEP_LATEST, options.getOverflowPolicy());
+        assertEquals(0, UPClient.Options.DEFAULT.getQueueCapacity());
+        assertEquals(UPClient.Options.OVERFLOW_DROP_OLDEST, UPClient.Options.DEFAULT.getOverflowPolicy());
+    }
+
+    @Test
+    public void testOptionsTrace() {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setTraceCapacity(16)
+                .build();
+        assertEquals(16, options.getTraceCapacity());
+        assertEquals(0, UPClient.Options.DEFAULT_TRACE_CAPACITY);
+        assertEquals(UPClient.Options.DEFAULT_TRACE_CAPACITY, UPClient.Options.DEFAULT.getTraceCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new UPClient.Options.Builder().setTraceCapacity(-1));
+    }
+
     @Test
     public void testCreateWithoutEntity() {
         assertNotNull(UPClient.create(mContext, mExecutor, mServiceLifecycleListener));
@@ -290,6 +361,16 @@ public class UPClientTest extends TestBase {
         verify(mServiceLifecycleListener, times(1)).onLifecycleChanged(mClient, false);
     }
 
+    @Test
+    public void testGetConnectionGeneration() {
+        final int generation = mClient.getConnectionGeneration();
+        mClient.getConnectionCallback().onConnectionInterrupted();
+        assertNotEquals(generation, mClient.getConnectionGeneration());
+        final int interruptedGeneration = mClient.getConnectionGeneration();
+        mClient.getConnectionCallback().onConnected();
+        assertNotEquals(interruptedGeneration, mClient.getConnectionGeneration());
+    }
+
     @Test
     public void testOnConnectedSuppressed() {
         final UPClient client = new UPClient(mContext, CLIENT, mManager, mExecutor, null);
@@ -313,6 +394,15 @@ public class UPClientTest extends TestBase {
         assertStatus(UCode.OK, mClient.send(MESSAGE));
     }
 
+    @Test
+    public void testSendBatch() {
+        final List<UMessage> messages = List.of(MESSAGE, MESSAGE);
+        doReturn(List.of(STATUS_OK, buildStatus(UCode.UNAVAILABLE))).when(mManager).sendBatch(messages);
+        final List<UStatus> statuses = mClient.send(messages);
+        assertStatus(UCode.OK, statuses.get(0));
+        assertStatus(UCode.UNAVAILABLE, statuses.get(1));
+    }
+
     @Test
     public void testRegisterGenericListener() {
         doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
@@ -363,6 +453,15 @@ public class UPClientTest extends TestBase {
         verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
     }
 
+    @Test
+    public void testRegisterGenericListenerNotFirstSkipLastMessage() {
+        doReturn(MESSAGE).when(mManager).getLastMessage(RESOURCE_URI);
+        testRegisterGenericListener();
+        assertStatus(UCode.OK, mClient.registerListener(RESOURCE_URI, mListener2, UPClient.FLAG_SKIP_LAST_MESSAGE));
+        verify(mManager, never()).getLastMessage(RESOURCE_URI);
+        verify(mListener2, timeout(DELAY_MS).times(0)).onReceive(MESSAGE);
+    }
+
     @Test
     public void testRegisterGenericListenerFailed() {
         doReturn(buildStatus(UCode.UNAUTHENTICATED)).when(mManager).enableDispatching(RESOURCE_URI);
@@ -378,6 +477,81 @@ public class UPClientTest extends TestBase {
         verify(mManager, timeout(DELAY_MS).times(2)).enableDispatching(RESOURCE_URI);
     }
 
+    @Test
+    public void testRegisterListeners() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI, METHOD_URI),
+                mListener);
+        assertEquals(3, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mManager, times(1)).enableDispatching(RESOURCE_URI);
+        verify(mManager, times(1)).enableDispatching(RESOURCE2_URI);
+        verify(mManager, times(1)).enableDispatching(METHOD_URI);
+        verify(mManager, never()).getLastMessages(any());
+    }
+
+    @Test
+    @SuppressWarnings("DataFlowIssue")
+    public void testRegisterListenersWithInvalidArgument() {
+        assertTrue(mClient.registerListeners(null, mListener).isEmpty());
+        final List<UStatus> statuses = mClient.registerListeners(List.of(UUri.getDefaultInstance(), RESOURCE_URI), null);
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.INVALID_ARGUMENT, status));
+        verify(mManager, never()).enableDispatching(any());
+    }
+
+    @Test
+    public void testRegisterListenersPartiallyFailed() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
+        doReturn(buildStatus(UCode.UNAUTHENTICATED)).when(mManager).enableDispatching(RESOURCE2_URI);
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI), mListener);
+        assertStatus(UCode.OK, statuses.get(0));
+        assertStatus(UCode.UNAUTHENTICATED, statuses.get(1));
+    }
+
+    @Test
+    public void testRegisterListenersNotFirstLastMessagesNotified() {
+        final UMessage message2 = buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE2_URI));
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI), mListener);
+        doReturn(Map.of(RESOURCE_URI, MESSAGE, RESOURCE2_URI, message2)).when(mManager).getLastMessages(any());
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI), mListener2);
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mManager, timeout(DELAY_MS).times(1)).getLastMessages(List.of(RESOURCE_URI, RESOURCE2_URI));
+        verify(mManager, never()).getLastMessage(any());
+        verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(message2);
+        verify(mListener, never()).onReceive(any());
+    }
+
+    @Test
+    public void testRegisterListenersNotFirstSkipLastMessages() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI), mListener);
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI, RESOURCE2_URI), mListener2,
+                UPClient.FLAG_SKIP_LAST_MESSAGE);
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mManager, timeout(DELAY_MS).times(0)).getLastMessages(any());
+    }
+
+    @Test
+    public void testRegisterListenersConflating() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI), mListener,
+                UPClient.FLAG_CONFLATE);
+        assertStatus(UCode.OK, statuses.get(0));
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testRegisterListenersWithInvalidFlags() {
+        final List<UStatus> statuses = mClient.registerListeners(List.of(RESOURCE_URI, METHOD_URI), mListener, 0x80);
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.INVALID_ARGUMENT, status));
+        verify(mManager, never()).enableDispatching(any());
+    }
+
     @Test
     public void testUnregisterGenericListener() {
         testRegisterGenericListener();
@@ -431,6 +605,106 @@ public class UPClientTest extends TestBase {
         verify(mListener, timeout(DELAY_MS).times(0)).onReceive(MESSAGE);
     }
 
+    private @NonNull UPClient createClientWithTrace() {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setTraceCapacity(16)
+                .build();
+        final UPClient client = new UPClient(mContext, CLIENT, mManager, mExecutor, mServiceLifecycleListener, options);
+        client.setLoggable(Log.INFO);
+        return client;
+    }
+
+    @Test
+    public void testDumpTrace() {
+        mClient = createClientWithTrace();
+        testRegisterGenericListener();
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        final StringWriter writer = new StringWriter();
+        mClient.dumpTrace(new PrintWriter(writer));
+        final String[] lines = writer.toString().split(System.lineSeparator());
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("event: receive"));
+        assertTrue(lines[1].contains("topic: " + stringify(RESOURCE_URI)));
+    }
+
+    @Test
+    public void testDumpTraceDroppedMessage() {
+        mClient = createClientWithTrace();
+        mClient.getListener().onReceive(MESSAGE);
+        final StringWriter writer = new StringWriter();
+        mClient.dumpTrace(new PrintWriter(writer));
+        final String[] lines = writer.toString().split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertTrue(lines[2].contains("event: drop"));
+        assertTrue(lines[2].contains("reason: noListener"));
+    }
+
+    @Test
+    public void testDumpTraceDisabled() {
+        mClient.getListener().onReceive(MESSAGE);
+        final StringWriter writer = new StringWriter();
+        mClient.dumpTrace(new PrintWriter(writer));
+        assertEquals("count: 0, size: 0" + System.lineSeparator(), writer.toString());
+    }
+
+    @Test
+    public void testGetTrafficStats() {
+        assertTrue(mClient.getTrafficStats().isEmpty());
+        verify(mManager, times(1)).getTrafficStats();
+    }
+
+    @Test
+    public void testMetrics() {
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(0, metrics.getSentCount());
+        assertEquals(0, metrics.getSendFailureCount());
+        assertEquals(0, metrics.getReceivedCount());
+        assertEquals(0, metrics.getDroppedCount());
+        assertEquals(0, metrics.getRpcSuccessCount());
+        assertEquals(0, metrics.getRpcLatency().getCount());
+        assertEquals(0, metrics.getRpcLatency().getPercentileNanos(99));
+        assertEquals(0, metrics.getQueueingDelay().getMeanNanos(), 0);
+    }
+
+    @Test
+    public void testMetricsSend() {
+        doReturn(STATUS_OK).when(mManager).send(MESSAGE);
+        doReturn(List.of(STATUS_OK, buildStatus(UCode.UNAVAILABLE))).when(mManager).sendBatch(any());
+        mClient.send(MESSAGE);
+        mClient.send(List.of(MESSAGE, MESSAGE));
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(2, metrics.getSentCount());
+        assertEquals(1, metrics.getSendFailureCount());
+    }
+
+    @Test
+    public void testMetricsReceive() {
+        testRegisterGenericListener();
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(1, metrics.getReceivedCount());
+        assertEquals(0, metrics.getDroppedCount());
+        assertEquals(1, metrics.getQueueingDelay().getCount());
+    }
+
+    @Test
+    public void testMetricsDropped() {
+        final UMessage expiredMessage =
+                buildMessage(PAYLOAD, newPublishAttributesBuilder(RESOURCE_URI).withTtl(1).build());
+        sleep(DELAY_MS);
+        mClient.getListener().onReceive(MESSAGE);
+        mClient.getListener().onReceive(expiredMessage);
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(2, metrics.getReceivedCount());
+        assertEquals(1, metrics.getDroppedCount(UPClient.Metrics.DROP_REASON_NO_LISTENER));
+        assertEquals(1, metrics.getDroppedCount(UPClient.Metrics.DROP_REASON_EXPIRED));
+        assertEquals(2, metrics.getDroppedCount());
+        assertEquals(0, metrics.getDroppedCount(0));
+        assertEquals(0, metrics.getDroppedCount(100));
+    }
+
     @Test
     public void testUnregisterGenericListenerFromAllTopics() {
         testRegisterGenericListenerDifferentTopics();
@@ -453,6 +727,390 @@ public class UPClientTest extends TestBase {
         verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
     }
 
+    @Test
+    public void testOnReceiveGenericMessageUnregisterInCallback() {
+        testRegisterGenericListenerNotFirst();
+        doAnswer(invocation -> mClient.unregisterListener(RESOURCE_URI, mListener2))
+                .when(mListener).onReceive(MESSAGE);
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(2)).onReceive(MESSAGE);
+        verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testOnReceiveGenericMessageSameListenerTwice() {
+        testRegisterGenericListener();
+        assertStatus(UCode.OK, mClient.registerListener(RESOURCE_URI, mListener));
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        verify(mManager, never()).getLastMessage(RESOURCE_URI);
+    }
+
+    @Test
+    public void testOnReceiveBatch() {
+        testRegisterGenericListener();
+        testRegisterRequestListener();
+        final UMessage requestMessage = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        final UMessage expiredMessage =
+                buildMessage(PAYLOAD, newPublishAttributesBuilder(RESOURCE_URI).withTtl(1).build());
+        sleep(DELAY_MS);
+        ((BatchListener) mClient.getListener()).onReceiveBatch(List.of(MESSAGE, expiredMessage, requestMessage));
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(requestMessage);
+        verify(mListener, never()).onReceive(expiredMessage);
+        verify(mExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    public void testOnReceiveBatchAllDropped() {
+        testRegisterGenericListener();
+        ((BatchListener) mClient.getListener()).onReceiveBatch(List.of(buildMessage(null, null)));
+        verify(mListener, timeout(DELAY_MS).times(0)).onReceive(any());
+        verify(mExecutor, never()).execute(any());
+    }
+
+    private static @NonNull ParcelableUMessage readFromParcel(@NonNull byte[] data) {
+        final Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeInt(data.length);
+            parcel.writeByteArray(data);
+            parcel.setDataPosition(0);
+            return ParcelableUMessage.CREATOR.createFromParcel(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    private static @NonNull byte[] buildDataWithMalformedPayload(@NonNull UMessage message) {
+        final ByteString data = UMessage.newBuilder(message).clearPayload().build().toByteString()
+                .concat(ByteString.copyFrom(new byte[] {
+                        (byte) ((UMessage.PAYLOAD_FIELD_NUMBER << 3) | 2), 1, 0 })); // Invalid tag inside
+        return data.toByteArray();
+    }
+
+    @Test
+    public void testOnReceiveParcels() {
+        testRegisterGenericListener();
+        ((ParcelableListener) mClient.getListener()).onReceiveParcels(List.of(readFromParcel(MESSAGE.toByteArray())));
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        verify(mExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    public void testOnReceiveParcelsMalformedPayloadNotRegistered() {
+        testRegisterGenericListener();
+        final UMessage message = buildMessage(PAYLOAD, newPublishAttributesBuilder(RESOURCE2_URI).build());
+        final ParcelableUMessage parcel = readFromParcel(buildDataWithMalformedPayload(message));
+        ((ParcelableListener) mClient.getListener()).onReceiveParcels(List.of(parcel));
+        verify(mListener, timeout(DELAY_MS).times(0)).onReceive(any());
+        assertEquals(message.getAttributes(), parcel.getAttributes());
+    }
+
+    @Test
+    public void testOnReceiveParcelsMalformedPayload() {
+        testRegisterGenericListener();
+        final ParcelableUMessage parcel = readFromParcel(buildDataWithMalformedPayload(MESSAGE));
+        ((ParcelableListener) mClient.getListener()).onReceiveParcels(List.of(parcel));
+        verify(mListener, timeout(DELAY_MS).times(0)).onReceive(any());
+    }
+
+    @Test
+    public void testOnReceiveParcelsMalformedAttributes() {
+        testRegisterGenericListener();
+        final ParcelableUMessage parcel = readFromParcel(new byte[] { 1, 2, 3 });
+        ((ParcelableListener) mClient.getListener()).onReceiveParcels(List.of(parcel));
+        verify(mListener, timeout(DELAY_MS).times(0)).onReceive(any());
+        verify(mExecutor, never()).execute(any());
+    }
+
+    private static final int DISPATCH_LANES = 4;
+
+    private static int getDispatchLane(@NonNull Object key) {
+        return Math.floorMod(key.hashCode(), DISPATCH_LANES);
+    }
+
+    private static @NonNull UUri buildTopicOnOtherLane(@NonNull UUri topic) {
+        for (int i = 0; ; i++) {
+            final UUri otherTopic = UUri.newBuilder(topic)
+                    .setResource(UResource.newBuilder(topic.getResource()).setInstance("lane" + i))
+                    .build();
+            if (getDispatchLane(otherTopic) != getDispatchLane(topic)) {
+                return otherTopic;
+            }
+        }
+    }
+
+    private static @NonNull UListener mockListenerOnOtherLane(@NonNull UListener listener) {
+        while (true) {
+            final UListener otherListener = mock(UListener.class);
+            if (getDispatchLane(otherListener) != getDispatchLane(listener)) {
+                return otherListener;
+            }
+        }
+    }
+
+    private @NonNull UPClient createClientWithDispatchLanes(int mode) {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setDispatchLanes(DISPATCH_LANES)
+                .setDispatchMode(mode)
+                .build();
+        final UPClient client = new UPClient(mContext, CLIENT, mManager, mExecutor, mServiceLifecycleListener, options);
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        return client;
+    }
+
+    @Test
+    public void testOnReceiveWithDispatchLanesByTopic() throws InterruptedException {
+        final UPClient client = createClientWithDispatchLanes(UPClient.Options.DISPATCH_BY_TOPIC);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.await(); // Block a lane of the first topic
+            return null;
+        }).when(mListener).onReceive(MESSAGE);
+        final UUri topic2 = buildTopicOnOtherLane(RESOURCE_URI);
+        final UMessage message2 = buildMessage(PAYLOAD, buildPublishAttributes(topic2));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener));
+        assertStatus(UCode.OK, client.registerListener(topic2, mListener2));
+        client.getListener().onReceive(MESSAGE);
+        client.getListener().onReceive(MESSAGE);
+        client.getListener().onReceive(message2);
+        verify(mListener2, timeout(DELAY_MS).times(1)).onReceive(message2);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        blocked.countDown();
+        verify(mListener, timeout(DELAY_MS).times(2)).onReceive(MESSAGE);
+        verify(mExecutor, never()).execute(any());
+    }
+
+    @Test
+    public void testOnReceiveWithDispatchLanesByListener() throws InterruptedException {
+        final UPClient client = createClientWithDispatchLanes(UPClient.Options.DISPATCH_BY_LISTENER);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.await(); // Block a lane of the first listener
+            return null;
+        }).when(mListener).onReceive(MESSAGE);
+        final UListener listener2 = mockListenerOnOtherLane(mListener);
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, listener2));
+        client.getListener().onReceive(MESSAGE);
+        client.getListener().onReceive(MESSAGE);
+        verify(listener2, timeout(DELAY_MS).times(2)).onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        blocked.countDown();
+        verify(mListener, timeout(DELAY_MS).times(2)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testOnReceiveBatchWithDispatchLanes() {
+        final UPClient client = createClientWithDispatchLanes(UPClient.Options.DISPATCH_BY_TOPIC);
+        final UMessage message2 = buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE2_URI));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE2_URI, mListener));
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(MESSAGE, message2, MESSAGE));
+        verify(mListener, timeout(DELAY_MS).times(2)).onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(message2);
+    }
+
+    @Test
+    public void testOnDisconnectedStopsWorkerThreads() {
+        final UPClient client = createClientWithDispatchLanes(UPClient.Options.DISPATCH_BY_TOPIC);
+        doReturn(STATUS_OK).when(mManager).send(any());
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener));
+        client.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+        client.invokeMethod(METHOD_URI, REQUEST_PAYLOAD, OPTIONS);
+        assertTrue(client.isDispatchPoolRunning());
+        assertTrue(client.getRequestTimeouts().isRunning());
+        client.getConnectionCallback().onDisconnected();
+        assertFalse(client.isDispatchPoolRunning());
+        assertFalse(client.getRequestTimeouts().isRunning());
+        assertEquals(0, client.getRequestTimeouts().size());
+    }
+
+    private @NonNull UPClient createClientWithBoundedQueue(@NonNull Executor executor, int policy) {
+        final UPClient.Options options = new UPClient.Options.Builder()
+                .setQueueCapacity(2)
+                .setOverflowPolicy(policy)
+                .build();
+        final UPClient client = new UPClient(mContext, CLIENT, mManager, executor, mServiceLifecycleListener, options);
+        doReturn(STATUS_OK).when(mManager).enableDispatching(any());
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE2_URI, mListener));
+        return client;
+    }
+
+    private static void runPendingTasks(@NonNull Executor executor) {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1)).execute(captor.capture());
+        captor.getValue().run();
+    }
+
+    private static @NonNull UMessage buildPublishMessage(@NonNull UUri topic, int value) {
+        return buildMessage(packToAny(Int32Value.newBuilder().setValue(value).build()), buildPublishAttributes(topic));
+    }
+
+    @Test
+    public void testOnReceiveWithBoundedQueueDropOldest() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = createClientWithBoundedQueue(executor, UPClient.Options.OVERFLOW_DROP_OLDEST);
+        final UMessage message1 = buildPublishMessage(RESOURCE_URI, 1);
+        final UMessage message2 = buildPublishMessage(RESOURCE_URI, 2);
+        final UMessage message3 = buildPublishMessage(RESOURCE2_URI, 3);
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(message1, message2, message3));
+        assertEquals(1, client.getDroppedMessageCount(RESOURCE_URI));
+        assertEquals(0, client.getDroppedMessageCount(RESOURCE2_URI));
+        runPendingTasks(executor);
+        verify(mListener, never()).onReceive(message1);
+        verify(mListener, times(1)).onReceive(message2);
+        verify(mListener, times(1)).onReceive(message3);
+    }
+
+    @Test
+    public void testOnReceiveWithBoundedQueueDropNewest() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = createClientWithBoundedQueue(executor, UPClient.Options.OVERFLOW_DROP_NEWEST);
+        final UMessage message1 = buildPublishMessage(RESOURCE_URI, 1);
+        final UMessage message2 = buildPublishMessage(RESOURCE_URI, 2);
+        final UMessage message3 = buildPublishMessage(RESOURCE2_URI, 3);
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(message1, message2, message3));
+        assertEquals(0, client.getDroppedMessageCount(RESOURCE_URI));
+        assertEquals(1, client.getDroppedMessageCount(RESOURCE2_URI));
+        runPendingTasks(executor);
+        verify(mListener, times(1)).onReceive(message1);
+        verify(mListener, times(1)).onReceive(message2);
+        verify(mListener, never()).onReceive(message3);
+    }
+
+    @Test
+    public void testOnReceiveWithBoundedQueueKeepLatest() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = createClientWithBoundedQueue(executor, UPClient.Options.OVERFLOW_KEEP_LATEST);
+        final UMessage message1 = buildPublishMessage(RESOURCE_URI, 1);
+        final UMessage message2 = buildPublishMessage(RESOURCE2_URI, 2);
+        final UMessage message3 = buildPublishMessage(RESOURCE_URI, 3);
+        final UMessage message4 = buildPublishMessage(RESOURCE_URI, 4);
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(message1, message2, message3, message4));
+        assertEquals(2, client.getDroppedMessageCount(RESOURCE_URI));
+        assertEquals(0, client.getDroppedMessageCount(RESOURCE2_URI));
+        runPendingTasks(executor);
+        verify(mListener, never()).onReceive(message1);
+        verify(mListener, times(1)).onReceive(message2);
+        verify(mListener, never()).onReceive(message3);
+        verify(mListener, times(1)).onReceive(message4);
+    }
+
+    @Test
+    public void testOnReceiveWithBoundedQueueDroppedRequest() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = createClientWithBoundedQueue(executor, UPClient.Options.OVERFLOW_DROP_NEWEST);
+        assertStatus(UCode.OK, client.registerListener(METHOD_URI, mListener2));
+        doReturn(STATUS_OK).when(mManager).send(any());
+        final UMessage request1 = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        final UMessage request2 = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        final UMessage request3 = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(request1, request2, request3));
+        assertEquals(1, client.getDroppedMessageCount(METHOD_URI));
+        verify(mManager, times(1)).send(argThat(message -> {
+            final UAttributes attributes = message.getAttributes();
+            return attributes.getType() == UMessageType.UMESSAGE_TYPE_RESPONSE &&
+                    attributes.getReqid().equals(request3.getAttributes().getId()) &&
+                    attributes.getCommstatus() == UCode.RESOURCE_EXHAUSTED;
+        }));
+        runPendingTasks(executor);
+        verify(mListener2, times(1)).onReceive(request1);
+        verify(mListener2, times(1)).onReceive(request2);
+        verify(mListener2, never()).onReceive(request3);
+    }
+
+    @Test
+    public void testOnReceiveWithBoundedQueueKeepLatestRequests() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = createClientWithBoundedQueue(executor, UPClient.Options.OVERFLOW_KEEP_LATEST);
+        assertStatus(UCode.OK, client.registerListener(METHOD_URI, mListener2));
+        final UMessage request1 = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        final UMessage request2 = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(request1, request2));
+        assertEquals(0, client.getDroppedMessageCount(METHOD_URI));
+        runPendingTasks(executor);
+        verify(mListener2, times(1)).onReceive(request1);
+        verify(mListener2, times(1)).onReceive(request2);
+    }
+
+    @Test
+    public void testGetDroppedMessageCountUnknownTopic() {
+        assertEquals(0, mClient.getDroppedMessageCount(RESOURCE_URI));
+    }
+
+    private static void runAllPendingTasks(@NonNull Executor executor) {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, atLeastOnce()).execute(captor.capture());
+        captor.getAllValues().forEach(Runnable::run);
+    }
+
+    @Test
+    public void testRegisterListenerConflating() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = new UPClient(mContext, CLIENT, mManager, executor, mServiceLifecycleListener);
+        doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener, UPClient.FLAG_CONFLATE));
+        final UMessage message1 = buildPublishMessage(RESOURCE_URI, 1);
+        final UMessage message2 = buildPublishMessage(RESOURCE_URI, 2);
+        final UMessage message3 = buildPublishMessage(RESOURCE_URI, 3);
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(message1, message2));
+        client.getListener().onReceive(message3);
+        runPendingTasks(executor);
+        verify(mListener, never()).onReceive(message1);
+        verify(mListener, never()).onReceive(message2);
+        verify(mListener, times(1)).onReceive(message3);
+    }
+
+    @Test
+    public void testRegisterListenerConflatingWithOtherListener() {
+        final Executor executor = mock(Executor.class);
+        final UPClient client = new UPClient(mContext, CLIENT, mManager, executor, mServiceLifecycleListener);
+        doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener, UPClient.FLAG_CONFLATE));
+        assertStatus(UCode.OK, client.registerListener(RESOURCE_URI, mListener2));
+        final UMessage message1 = buildPublishMessage(RESOURCE_URI, 1);
+        final UMessage message2 = buildPublishMessage(RESOURCE_URI, 2);
+        ((BatchListener) client.getListener()).onReceiveBatch(List.of(message1, message2));
+        runAllPendingTasks(executor);
+        verify(mListener, never()).onReceive(message1);
+        verify(mListener, times(1)).onReceive(message2);
+        verify(mListener2, times(1)).onReceive(message1);
+        verify(mListener2, times(1)).onReceive(message2);
+    }
+
+    @Test
+    public void testRegisterListenerConflatingSameListenerTwice() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
+        assertStatus(UCode.OK, mClient.registerListener(RESOURCE_URI, mListener, UPClient.FLAG_CONFLATE));
+        assertStatus(UCode.OK, mClient.registerListener(RESOURCE_URI, mListener));
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(1)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testUnregisterListenerConflating() {
+        doReturn(STATUS_OK).when(mManager).enableDispatching(RESOURCE_URI);
+        doReturn(STATUS_OK).when(mManager).disableDispatching(RESOURCE_URI);
+        assertStatus(UCode.OK, mClient.registerListener(RESOURCE_URI, mListener, UPClient.FLAG_CONFLATE));
+        assertStatus(UCode.OK, mClient.unregisterListener(RESOURCE_URI, mListener));
+        verify(mManager, times(1)).disableDispatching(RESOURCE_URI);
+        mClient.getListener().onReceive(MESSAGE);
+        verify(mListener, timeout(DELAY_MS).times(0)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testRegisterListenerWithInvalidFlags() {
+        assertStatus(UCode.INVALID_ARGUMENT, mClient.registerListener(RESOURCE_URI, mListener, 0x80));
+        assertStatus(UCode.INVALID_ARGUMENT, mClient.registerListener(METHOD_URI, mListener, UPClient.FLAG_CONFLATE));
+        verify(mManager, never()).enableDispatching(any());
+    }
+
     @Test
     public void testOnReceiveGenericMessageNotRegistered() {
         testUnregisterGenericListener();
@@ -683,6 +1341,20 @@ public class UPClientTest extends TestBase {
         assertEquals(requestAttributes.getId(), responseAttributes.getReqid());
     }
 
+    @Test
+    public void testMetricsInvokeMethod() throws Exception {
+        testInvokeMethod();
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(2, metrics.getSentCount()); // Request and response
+        assertEquals(2, metrics.getReceivedCount());
+        assertEquals(1, metrics.getRpcSuccessCount());
+        assertEquals(0, metrics.getRpcFailureCount());
+        assertEquals(0, metrics.getRpcTimeoutCount());
+        assertEquals(1, metrics.getRpcLatency().getCount());
+        assertTrue(metrics.getRpcLatency().getMaxNanos() > 0);
+        assertEquals(1, metrics.getQueueingDelay().getCount());
+    }
+
     @Test
     public void testInvokeMethodWithoutToken() throws Exception {
         testRegisterRequestListener();
@@ -753,6 +1425,32 @@ public class UPClientTest extends TestBase {
         assertFalse(responseFuture.isDone());
     }
 
+    @Test
+    public void testInvokeMethodTimeout() {
+        testRegisterRequestListener();
+        redirectMessages(mManager, mClient);
+
+        final CallOptions options = CallOptions.newBuilder(OPTIONS).setTtl(10).build();
+        final CompletableFuture<UMessage> responseFuture =
+                mClient.invokeMethod(METHOD_URI, REQUEST_PAYLOAD, options).toCompletableFuture();
+        final ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> responseFuture.get(DELAY_MS, TimeUnit.MILLISECONDS));
+        assertTrue(exception.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void testMetricsInvokeMethodTimeout() throws Exception {
+        testInvokeMethodTimeout();
+        final long deadline = System.currentTimeMillis() + DELAY_MS;
+        while (mClient.getMetrics().getRpcTimeoutCount() == 0 && System.currentTimeMillis() < deadline) {
+            sleep(1);
+        }
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(1, metrics.getRpcTimeoutCount());
+        assertEquals(0, metrics.getRpcSuccessCount());
+        assertEquals(0, metrics.getRpcLatency().getCount());
+    }
+
     @Test
     public void testInvokeMethodWhenDisconnected() {
         testRegisterRequestListener();
@@ -834,10 +1532,109 @@ public class UPClientTest extends TestBase {
         }
     }
 
+    @Test
+    public void testInvokeMethodResponseDuringSend() throws Exception {
+        doAnswer(invocation -> {
+            final UMessage requestMessage = invocation.getArgument(0);
+            mClient.getListener().onReceive(buildMessage(RESPONSE_PAYLOAD,
+                    UAttributesBuilder.response(requestMessage.getAttributes()).build()));
+            return STATUS_OK;
+        }).when(mManager).send(any());
+        final CompletableFuture<UMessage> responseFuture =
+                mClient.invokeMethod(METHOD_URI, REQUEST_PAYLOAD, OPTIONS).toCompletableFuture();
+        assertEquals(RESPONSE_PAYLOAD, responseFuture.get(DELAY_MS, TimeUnit.MILLISECONDS).getPayload());
+    }
+
     @Test
     public void testInvokeMethodSendFailure() {
         doReturn(buildStatus(UCode.UNAVAILABLE)).when(mManager).send(any());
         assertStatus(UCode.UNAVAILABLE, toStatus(assertThrows(ExecutionException.class,
                 () -> mClient.invokeMethod(METHOD_URI, PAYLOAD, OPTIONS).toCompletableFuture().get())));
     }
+
+    @Test
+    public void testMetricsInvokeMethodSendFailure() {
+        testInvokeMethodSendFailure();
+        final UPClient.Metrics metrics = mClient.getMetrics();
+        assertEquals(1, metrics.getSendFailureCount());
+        assertEquals(1, metrics.getRpcFailureCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInvokeMethods() throws Exception {
+        doReturn(List.of(STATUS_OK, STATUS_OK)).when(mManager).sendBatch(any());
+        final List<CompletionStage<UMessage>> responseFutures = mClient.invokeMethods(List.of(
+                new UPClient.RpcCall(METHOD_URI, REQUEST_PAYLOAD, OPTIONS),
+                new UPClient.RpcCall(METHOD2_URI, REQUEST_PAYLOAD, OPTIONS)));
+        assertEquals(2, responseFutures.size());
+
+        final ArgumentCaptor<List<UMessage>> requestsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mManager, times(1)).sendBatch(requestsCaptor.capture());
+        verify(mManager, never()).send(any());
+        final List<UMessage> requestMessages = requestsCaptor.getValue();
+        assertEquals(2, requestMessages.size());
+        assertEquals(METHOD_URI, requestMessages.get(0).getAttributes().getSink());
+        assertEquals(METHOD2_URI, requestMessages.get(1).getAttributes().getSink());
+
+        for (int i = 1; i >= 0; i--) {
+            final UMessage responseMessage = buildMessage(RESPONSE_PAYLOAD,
+                    UAttributesBuilder.response(requestMessages.get(i).getAttributes()).build());
+            mClient.getListener().onReceive(responseMessage);
+            assertEquals(responseMessage, responseFutures.get(i).toCompletableFuture().get(DELAY_MS, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInvokeMethodsPartialSendFailure() throws Exception {
+        doReturn(List.of(buildStatus(UCode.UNAVAILABLE), STATUS_OK)).when(mManager).sendBatch(any());
+        final List<CompletionStage<UMessage>> responseFutures = mClient.invokeMethods(List.of(
+                new UPClient.RpcCall(METHOD_URI, REQUEST_PAYLOAD, OPTIONS),
+                new UPClient.RpcCall(METHOD2_URI, REQUEST_PAYLOAD, OPTIONS)));
+        assertStatus(UCode.UNAVAILABLE, toStatus(assertThrows(ExecutionException.class,
+                () -> responseFutures.get(0).toCompletableFuture().get())));
+        assertFalse(responseFutures.get(1).toCompletableFuture().isDone());
+
+        // A late response of a failed request is ignored
+        final ArgumentCaptor<List<UMessage>> requestsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mManager, times(1)).sendBatch(requestsCaptor.capture());
+        final UMessage requestMessage = requestsCaptor.getValue().get(0);
+        mClient.getListener().onReceive(buildMessage(RESPONSE_PAYLOAD,
+                UAttributesBuilder.response(requestMessage.getAttributes()).build()));
+        assertFalse(responseFutures.get(1).toCompletableFuture().isDone());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInvokeMethodsWithInvalidCall() {
+        doReturn(List.of(STATUS_OK)).when(mManager).sendBatch(any());
+        final List<CompletionStage<UMessage>> responseFutures = mClient.invokeMethods(Arrays.asList(
+                new UPClient.RpcCall(UUri.getDefaultInstance(), REQUEST_PAYLOAD, OPTIONS),
+                null,
+                new UPClient.RpcCall(METHOD_URI, REQUEST_PAYLOAD, OPTIONS)));
+        assertEquals(3, responseFutures.size());
+        assertStatus(UCode.INVALID_ARGUMENT, toStatus(assertThrows(ExecutionException.class,
+                () -> responseFutures.get(0).toCompletableFuture().get())));
+        assertStatus(UCode.INVALID_ARGUMENT, toStatus(assertThrows(ExecutionException.class,
+                () -> responseFutures.get(1).toCompletableFuture().get())));
+        assertFalse(responseFutures.get(2).toCompletableFuture().isDone());
+
+        final ArgumentCaptor<List<UMessage>> requestsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mManager, times(1)).sendBatch(requestsCaptor.capture());
+        assertEquals(1, requestsCaptor.getValue().size());
+    }
+
+    @Test
+    public void testInvokeMethodsEmpty() {
+        assertTrue(mClient.invokeMethods(List.of()).isEmpty());
+        verify(mManager, never()).sendBatch(any());
+    }
+
+    @Test
+    @SuppressWarnings("DataFlowIssue")
+    public void testInvokeMethodsNull() {
+        assertTrue(mClient.invokeMethods(null).isEmpty());
+        verify(mManager, never()).sendBatch(any());
+    }
 }
@@ -243,6 +243,18 @@ public class FormatterTest extends TestBase {
         assertEquals("", Formatter.stringify((UMessage) null));
     }
 
+    @Test
+    public void testStringifyUAttributes() {
+        assertEquals("[id: " + ID_STRING + ", " +
+                "source: /test.service/1/rpc.method, sink: /test.client/1/rpc.response, " +
+                "type: UMESSAGE_TYPE_RESPONSE]", Formatter.stringify(ATTRIBUTES));
+    }
+
+    @Test
+    public void testStringifyUAttributesNull() {
+        assertEquals("", Formatter.stringify((UAttributes) null));
+    }
+
     @Test
     public void testToPrettyMemory() {
         assertEquals("17 B", Formatter.toPrettyMemory(17));
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.common.util.log;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.v1.UAttributes;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UStatus;
+import org.eclipse.uprotocol.v1.UUID;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class LogBuilderTest extends TestBase {
+    private static final String KEY1 = "key1";
+    private static final String KEY2 = "key2";
+    private static final String VALUE1 = "value1";
+    private static final String METHOD = "method";
+
+    @Test
+    public void testObtain() {
+        final LogBuilder builder = LogBuilder.obtain();
+        builder.build();
+        assertSame(builder, LogBuilder.obtain());
+    }
+
+    @Test
+    public void testObtainNested() {
+        final LogBuilder builder = LogBuilder.obtain();
+        final LogBuilder nestedBuilder = LogBuilder.obtain();
+        assertNotSame(builder, nestedBuilder);
+        assertEquals(KEY1 + ": " + VALUE1, nestedBuilder.append(KEY1, VALUE1).build());
+        assertEquals(KEY2 + ": " + VALUE1, builder.append(KEY2, VALUE1).build());
+    }
+
+    @Test
+    public void testObtainAfterFailure() {
+        final Object value = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException();
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> LogBuilder.obtain().append(KEY1, value).build());
+        final LogBuilder builder = LogBuilder.obtain();
+        assertEquals("", builder.build());
+        assertSame(builder, LogBuilder.obtain());
+    }
+
+    @Test
+    public void testBuildReset() {
+        LogBuilder.obtain().append(KEY1, VALUE1).build();
+        assertEquals("", LogBuilder.obtain().build());
+    }
+
+    @Test
+    public void testAppendString() {
+        assertEquals(Formatter.join(KEY1, VALUE1, KEY2, "value 2"),
+                LogBuilder.obtain().append(KEY1, VALUE1).append(KEY2, "value 2").build());
+    }
+
+    @Test
+    public void testAppendStringQuoted() {
+        assertEquals(Formatter.join(KEY1, "\"value 1\"", KEY2, "[value 2]"),
+                LogBuilder.obtain().append(KEY1, "\"value 1\"").append(KEY2, "[value 2]").build());
+    }
+
+    @Test
+    public void testAppendEmptyKey() {
+        assertEquals(Formatter.join(null, VALUE1, "", VALUE1, KEY2, VALUE1),
+                LogBuilder.obtain().append(null, VALUE1).append("", VALUE1).append(KEY2, VALUE1).build());
+    }
+
+    @Test
+    public void testAppendNullValue() {
+        assertEquals(Formatter.join(KEY1, null, KEY2, VALUE1),
+                LogBuilder.obtain().append(KEY1, (String) null).append(KEY2, VALUE1).build());
+    }
+
+    @Test
+    public void testAppendPrimitives() {
+        assertEquals(Formatter.join(KEY1, 42L, KEY2, true),
+                LogBuilder.obtain().append(KEY1, 42L).append(KEY2, true).build());
+    }
+
+    @Test
+    public void testAppendObject() {
+        assertEquals(Formatter.join(KEY1, UCode.NOT_FOUND, KEY2, new StringBuilder("value 2")),
+                LogBuilder.obtain().append(KEY1, UCode.NOT_FOUND).append(KEY2, new StringBuilder("value 2")).build());
+    }
+
+    @Test
+    public void testAppendUUri() {
+        assertEquals(Formatter.join(Key.URI, Formatter.stringify(RESOURCE_URI)),
+                LogBuilder.obtain().append(Key.URI, RESOURCE_URI).build());
+    }
+
+    @Test
+    public void testAppendUUid() {
+        assertEquals(Formatter.join(Key.ID, Formatter.stringify(ID)), LogBuilder.obtain().append(Key.ID, ID).build());
+        final UUID id = UUID.newBuilder().setMsb(0x0123456789ABCDEFL).setLsb(0xFEDCBA9876543210L).build();
+        assertEquals(Formatter.join(Key.ID, Formatter.stringify(id)), LogBuilder.obtain().append(Key.ID, id).build());
+    }
+
+    @Test
+    public void testAppendUStatus() {
+        final UStatus status = buildStatus(UCode.UNKNOWN, "Unknown \"failure\"");
+        assertEquals(Formatter.join(Key.STATUS, Formatter.stringify(status), KEY1, VALUE1),
+                LogBuilder.obtain().append(Key.STATUS, status).append(KEY1, VALUE1).build());
+        assertEquals(Formatter.join(Key.STATUS, Formatter.stringify(STATUS_OK)),
+                LogBuilder.obtain().append(Key.STATUS, STATUS_OK).build());
+    }
+
+    @Test
+    public void testAppendUMessage() {
+        final UMessage message = buildMessage(PAYLOAD, ATTRIBUTES);
+        assertEquals(Formatter.join(Key.MESSAGE, Formatter.stringify(message)),
+                LogBuilder.obtain().append(Key.MESSAGE, message).build());
+        assertEquals(Formatter.join(Key.MESSAGE, Formatter.stringify((UMessage) null)),
+                LogBuilder.obtain().append(Key.MESSAGE, (UMessage) null).build());
+    }
+
+    @Test
+    public void testAppendUAttributes() {
+        final UAttributes attributes = UAttributes.newBuilder(ATTRIBUTES).clearSink().build();
+        assertEquals(Formatter.join(Key.ATTRIBUTES, Formatter.stringify(ATTRIBUTES),
+                KEY1, Formatter.stringify(attributes)),
+                LogBuilder.obtain().append(Key.ATTRIBUTES, ATTRIBUTES).append(KEY1, attributes).build());
+    }
+
+    @Test
+    public void testStatus() {
+        final UStatus status = buildStatus(UCode.INVALID_ARGUMENT, "Invalid argument");
+        assertEquals(Formatter.status(METHOD, status, Key.URI, Formatter.stringify(RESOURCE_URI)),
+                LogBuilder.obtain().status(METHOD, status).append(Key.URI, RESOURCE_URI).build());
+    }
+
+    @Test
+    public void testToString() {
+        final LogBuilder builder = LogBuilder.obtain().append(KEY1, VALUE1);
+        assertEquals(KEY1 + ": " + VALUE1, builder.toString());
+        assertEquals(KEY1 + ": " + VALUE1, builder.build());
+    }
+}
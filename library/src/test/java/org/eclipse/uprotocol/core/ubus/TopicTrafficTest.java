@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.ubus;
+
+import static org.junit.Assert.assertEquals;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class TopicTrafficTest extends TestBase {
+    private static final double DELTA = 0.001;
+
+    private final TopicTraffic.Counter mCounter = new TopicTraffic.Counter(1000);
+
+    @Test
+    public void testEmpty() {
+        final TopicTraffic traffic = mCounter.snapshot(1000);
+        assertEquals(0, traffic.getSentCount());
+        assertEquals(0, traffic.getSentBytes());
+        assertEquals(0, traffic.getLastSentTime());
+        assertEquals(0, traffic.getReceivedCount());
+        assertEquals(0, traffic.getReceivedBytes());
+        assertEquals(0, traffic.getLastReceivedTime());
+        assertEquals(0, traffic.getSentRate(), DELTA);
+        assertEquals(0, traffic.getReceivedRate(), DELTA);
+    }
+
+    @Test
+    public void testSent() {
+        mCounter.onSent(10, 1100);
+        mCounter.onSent(20, 1200);
+        final TopicTraffic traffic = mCounter.snapshot(2000);
+        assertEquals(2, traffic.getSentCount());
+        assertEquals(30, traffic.getSentBytes());
+        assertEquals(1200, traffic.getLastSentTime());
+        assertEquals(2, traffic.getSentRate(), DELTA);
+        assertEquals(0, traffic.getReceivedCount());
+    }
+
+    @Test
+    public void testReceived() {
+        mCounter.onReceived(10, 1500);
+        mCounter.onReceived(20, 2000);
+        mCounter.onReceived(30, 2500);
+        final TopicTraffic traffic = mCounter.snapshot(3000);
+        assertEquals(3, traffic.getReceivedCount());
+        assertEquals(60, traffic.getReceivedBytes());
+        assertEquals(2500, traffic.getLastReceivedTime());
+        assertEquals(1.5, traffic.getReceivedRate(), DELTA);
+        assertEquals(0, traffic.getSentCount());
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        mCounter.onSent(10, 1100);
+        final TopicTraffic traffic = mCounter.snapshot(2000);
+        mCounter.onSent(10, 1200);
+        assertEquals(1, traffic.getSentCount());
+        assertEquals(2, mCounter.snapshot(2000).getSentCount());
+    }
+
+    @Test
+    public void testRateWithoutElapsedTime() {
+        mCounter.onReceived(10, 1000);
+        assertEquals(1000, mCounter.snapshot(1000).getReceivedRate(), DELTA);
+    }
+}
@@ -26,6 +26,8 @@ package org.eclipse.uprotocol.core.ubus;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
 import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
 import static org.eclipse.uprotocol.core.ubus.UBusManager.ACTION_BIND_UBUS;
+import static org.eclipse.uprotocol.core.ubus.UBusManager.FLAG_BATCH_DELIVERY;
+import static org.eclipse.uprotocol.core.ubus.UBusManager.FLAG_SHARED_MEMORY_DELIVERY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -39,6 +41,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
@@ -47,20 +50,32 @@ import static org.mockito.Mockito.verify;
 import android.content.ComponentName;
 import android.content.Context;
 import android.content.ServiceConnection;
+import android.content.res.Resources;
+import android.os.DeadObjectException;
 import android.os.IBinder;
 import android.os.RemoteException;
+import android.os.SharedMemory;
+import android.system.ErrnoException;
+import android.system.OsConstants;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import com.google.protobuf.ByteString;
+
 import org.eclipse.uprotocol.TestBase;
 import org.eclipse.uprotocol.client.R;
 import org.eclipse.uprotocol.common.UStatusException;
+import org.eclipse.uprotocol.internal.MessageTrace;
 import org.eclipse.uprotocol.transport.UListener;
 import org.eclipse.uprotocol.v1.UCode;
 import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UPayload;
+import org.eclipse.uprotocol.v1.UResource;
 import org.eclipse.uprotocol.v1.UStatus;
+import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.internal.ParcelableSharedUMessage;
 import org.eclipse.uprotocol.v1.internal.ParcelableUMessage;
 import org.eclipse.uprotocol.v1.internal.ParcelableUStatus;
 import org.eclipse.uprotocol.v1.internal.ParcelableUUri;
@@ -68,8 +83,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -79,8 +99,13 @@ public class UBusManagerTest extends TestBase {
     private static final ComponentName SERVICE = new ComponentName(SERVICE_PACKAGE, SERVICE_PACKAGE + ".UBusService");
     private static final UMessage MESSAGE = buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE_URI));
     private static final long REBIND_DELAY_MS = 1000 + DELAY_MS;
+    private static final int SHARED_MEMORY_THRESHOLD = 1024;
+    private static final UMessage LARGE_MESSAGE = buildMessage(UPayload.newBuilder()
+            .setValue(ByteString.copyFrom(new byte[SHARED_MEMORY_THRESHOLD]))
+            .build(), buildPublishAttributes(RESOURCE_URI));
 
     private Context mContext;
+    private Resources mResources;
     private ConnectionCallback mConnectionCallback;
     private UListener mListener;
     private UBusManager mManager;
@@ -91,6 +116,9 @@ public class UBusManagerTest extends TestBase {
     @Before
     public void setUp() throws RemoteException {
         mContext = mock(Context.class);
+        mResources = mock(Resources.class);
+        doReturn(mResources).when(mContext).getResources();
+        setSharedMemoryThreshold(SHARED_MEMORY_THRESHOLD);
         mConnectionCallback = mock(ConnectionCallback.class);
         mListener = mock(UListener.class);
         setServiceConfig(SERVICE_PACKAGE);
@@ -99,6 +127,10 @@ public class UBusManagerTest extends TestBase {
         prepareService();
     }
 
+    private void setSharedMemoryThreshold(int threshold) {
+        doReturn(threshold).when(mResources).getInteger(R.integer.config_SharedMemoryThreshold);
+    }
+
     private void setServiceConfig(@NonNull String config) {
         doReturn(config).when(mContext).getString(R.string.config_UBusService);
     }
@@ -113,6 +145,9 @@ public class UBusManagerTest extends TestBase {
         doReturn(new ParcelableUStatus(STATUS_OK)).when(mService).enableDispatching(any(), anyInt(), any());
         doReturn(new ParcelableUStatus(STATUS_OK)).when(mService).disableDispatching(any(), anyInt(), any());
         doReturn(new ParcelableUStatus(STATUS_OK)).when(mService).send(any(), any());
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService).sendShared(any(), any());
+        doAnswer(invocation -> buildStatuses(invocation.<ParcelableUMessage[]>getArgument(0).length, STATUS_OK))
+                .when(mService).sendBatch(any(), any());
         doReturn(new ParcelableUMessage[] { new ParcelableUMessage(MESSAGE) })
                 .when(mService).pull(any(), anyInt(), anyInt(), any());
         prepareService(true, connection -> {
@@ -121,6 +156,12 @@ public class UBusManagerTest extends TestBase {
         });
     }
 
+    private static @NonNull ParcelableUStatus[] buildStatuses(int count, @NonNull UStatus status) {
+        final ParcelableUStatus[] statuses = new ParcelableUStatus[count];
+        Arrays.fill(statuses, new ParcelableUStatus(status));
+        return statuses;
+    }
+
     private void prepareService(boolean available, @NonNull Consumer<ServiceConnection> onBindCallback) {
         doAnswer(invocation -> {
             onBindCallback.accept(invocation.getArgument(1));
@@ -482,6 +523,52 @@ public class UBusManagerTest extends TestBase {
         verify(mService, never()).pull(any(), anyInt(), anyInt(), any());
     }
 
+    @Test
+    public void testGetLastMessages() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUMessage[] { new ParcelableUMessage(MESSAGE), null })
+                .when(mService).pullBatch(any(), anyInt(), any());
+        assertEquals(Map.of(RESOURCE_URI, MESSAGE), mManager.getLastMessages(List.of(RESOURCE_URI, RESOURCE2_URI)));
+        verify(mService, times(1)).pullBatch(
+                eq(new ParcelableUUri[] { new ParcelableUUri(RESOURCE_URI), new ParcelableUUri(RESOURCE2_URI) }),
+                anyInt(), any());
+        verify(mService, never()).pull(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetLastMessagesSplit() throws RemoteException {
+        testConnect();
+        doAnswer(invocation -> new ParcelableUMessage[invocation.<ParcelableUUri[]>getArgument(0).length])
+                .when(mService).pullBatch(any(), anyInt(), any());
+        assertTrue(mManager.getLastMessages(Collections.nCopies(100, RESOURCE_URI)).isEmpty());
+        verify(mService, times(2)).pullBatch(any(), anyInt(), any());
+        verify(mService, never()).pull(any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetLastMessagesBatchNotSupported() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUMessage[0]).when(mService).pullBatch(any(), anyInt(), any());
+        doReturn(null).when(mService).pull(eq(new ParcelableUUri(RESOURCE2_URI)), anyInt(), anyInt(), any());
+        assertEquals(Map.of(RESOURCE_URI, MESSAGE), mManager.getLastMessages(List.of(RESOURCE_URI, RESOURCE2_URI)));
+        verify(mService, times(1)).pull(eq(new ParcelableUUri(RESOURCE_URI)), eq(1), anyInt(), any());
+        verify(mService, times(1)).pull(eq(new ParcelableUUri(RESOURCE2_URI)), eq(1), anyInt(), any());
+    }
+
+    @Test
+    @SuppressWarnings("DataFlowIssue")
+    public void testGetLastMessagesInvalidArgument() throws RemoteException {
+        testConnect();
+        assertTrue(mManager.getLastMessages(null).isEmpty());
+        verify(mService, never()).pullBatch(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetLastMessagesDisconnected() throws RemoteException {
+        assertTrue(mManager.getLastMessages(List.of(RESOURCE_URI)).isEmpty());
+        verify(mService, never()).pullBatch(any(), anyInt(), any());
+    }
+
     @Test
     public void testSend() throws RemoteException {
         testConnect();
@@ -489,12 +576,218 @@ public class UBusManagerTest extends TestBase {
         verify(mService, times(1)).send(eq(new ParcelableUMessage(MESSAGE)), any());
     }
 
+    @Test
+    public void testSendShared() throws RemoteException {
+        testConnect();
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        verify(mService, times(1)).sendShared(argThat(data -> LARGE_MESSAGE.equals(data.getWrapped())), any());
+        verify(mService, never()).send(any(), any());
+    }
+
+    @Test
+    public void testSendTraced() throws RemoteException {
+        final MessageTrace trace = new MessageTrace(16);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, mListener, trace);
+        testConnect();
+        assertStatus(UCode.OK, mManager.send(MESSAGE));
+        mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertEquals(3, trace.size());
+    }
+
+    @Test
+    public void testSendTracedDisconnected() {
+        final MessageTrace trace = new MessageTrace(16);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, mListener, trace);
+        assertStatus(UCode.UNAVAILABLE, mManager.send(MESSAGE));
+        assertEquals(1, trace.size());
+    }
+
+    @Test
+    public void testSendSharedDisabled() throws RemoteException {
+        setSharedMemoryThreshold(0);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, mListener);
+        testConnect();
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        verify(mService, never()).sendShared(any(), any());
+        verify(mService, times(1)).send(eq(new ParcelableUMessage(LARGE_MESSAGE)), any());
+    }
+
+    @Test
+    public void testSendSharedFailure() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUStatus(buildStatus(UCode.PERMISSION_DENIED))).when(mService).sendShared(any(), any());
+        assertStatus(UCode.PERMISSION_DENIED, mManager.send(LARGE_MESSAGE));
+        verify(mService, never()).send(any(), any());
+    }
+
+    @Test
+    public void testSendSharedNotSupported() throws RemoteException {
+        testConnect();
+        doReturn(null).when(mService).sendShared(any(), any());
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        verify(mService, times(1)).sendShared(any(), any());
+        verify(mService, times(2)).send(eq(new ParcelableUMessage(LARGE_MESSAGE)), any());
+    }
+
+    @Test
+    public void testSendSharedMemoryExhausted() throws RemoteException {
+        testConnect();
+        try (MockedStatic<SharedMemory> mockedSharedMemory = mockStatic(SharedMemory.class)) {
+            mockedSharedMemory.when(() -> SharedMemory.create(any(), anyInt()))
+                    .thenThrow(new ErrnoException("create", OsConstants.ENOMEM));
+            assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        }
+        verify(mService, never()).sendShared(any(), any());
+        verify(mService, times(1)).send(eq(new ParcelableUMessage(LARGE_MESSAGE)), any());
+        // Shared memory is tried again for the next message
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        verify(mService, times(1)).sendShared(any(), any());
+    }
+
+    @Test
+    public void testSendBatchSharedNotSupported() throws RemoteException {
+        testConnect();
+        doReturn(null).when(mService).sendShared(any(), any());
+        assertStatus(UCode.OK, mManager.send(LARGE_MESSAGE));
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, LARGE_MESSAGE, MESSAGE));
+        assertEquals(3, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mService, times(1)).sendShared(any(), any());
+        verify(mService, times(1)).sendBatch(argThat(data -> data.length == 3), any());
+    }
+
+    @Test
+    public void testSendBatchWithSharedMessage() throws RemoteException {
+        testConnect();
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE, LARGE_MESSAGE, MESSAGE));
+        assertEquals(4, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mService, times(1)).sendBatch(argThat(data -> data.length == 2), any());
+        verify(mService, times(1)).sendShared(any(), any());
+        verify(mService, times(1)).send(eq(new ParcelableUMessage(MESSAGE)), any());
+    }
+
     @Test
     public void testSendDisconnected() throws RemoteException {
         assertStatus(UCode.UNAVAILABLE, mManager.send(MESSAGE));
         verify(mService, never()).send(any(), any());
     }
 
+    @Test
+    public void testSendBatch() throws RemoteException {
+        testConnect();
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mService, times(1)).sendBatch(argThat(data -> data.length == 2), any());
+        verify(mService, never()).send(any(), any());
+    }
+
+    @Test
+    public void testSendBatchPartialFailure() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUStatus[] {
+                new ParcelableUStatus(STATUS_OK), new ParcelableUStatus(buildStatus(UCode.PERMISSION_DENIED)) })
+                .when(mService).sendBatch(any(), any());
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertStatus(UCode.OK, statuses.get(0));
+        assertStatus(UCode.PERMISSION_DENIED, statuses.get(1));
+    }
+
+    @Test
+    public void testSendBatchNotSupported() throws RemoteException {
+        testConnect();
+        doReturn(null).when(mService).sendBatch(any(), any());
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mService, times(2)).send(eq(new ParcelableUMessage(MESSAGE)), any());
+        // Not tried again with the same service
+        mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        verify(mService, times(1)).sendBatch(any(), any());
+        verify(mService, times(4)).send(eq(new ParcelableUMessage(MESSAGE)), any());
+    }
+
+    @Test
+    public void testSendBatchUnexpectedResults() throws RemoteException {
+        testConnect();
+        doReturn(buildStatuses(1, STATUS_OK)).when(mService).sendBatch(any(), any());
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.INTERNAL, status));
+    }
+
+    @Test
+    public void testSendBatchSplit() throws RemoteException {
+        setSharedMemoryThreshold(0);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, mListener);
+        testConnect();
+        final UMessage message = UMessage.newBuilder(MESSAGE)
+                .setPayload(UPayload.newBuilder().setValue(ByteString.copyFrom(new byte[200 * 1024])))
+                .build();
+        final List<UStatus> statuses = mManager.sendBatch(List.of(message, message, MESSAGE));
+        assertEquals(3, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.OK, status));
+        verify(mService, times(1)).sendBatch(argThat(data -> data.length == 1), any());
+        verify(mService, times(1)).sendBatch(argThat(data -> data.length == 2), any());
+    }
+
+    @Test
+    public void testSendBatchSplitFailure() throws RemoteException {
+        setSharedMemoryThreshold(0);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, mListener);
+        testConnect();
+        final UMessage message = UMessage.newBuilder(MESSAGE)
+                .setPayload(UPayload.newBuilder().setValue(ByteString.copyFrom(new byte[200 * 1024])))
+                .build();
+        doReturn(buildStatuses(1, STATUS_OK))
+                .doThrow(new DeadObjectException())
+                .when(mService).sendBatch(any(), any());
+        final List<UStatus> statuses = mManager.sendBatch(List.of(message, message, MESSAGE));
+        assertEquals(3, statuses.size());
+        assertStatus(UCode.OK, statuses.get(0));
+        assertStatus(UCode.UNAVAILABLE, statuses.get(1));
+        assertStatus(UCode.UNAVAILABLE, statuses.get(2));
+    }
+
+    @Test
+    public void testSendBatchMissingResult() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUStatus[] { new ParcelableUStatus(STATUS_OK), null })
+                .when(mService).sendBatch(any(), any());
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertStatus(UCode.OK, statuses.get(0));
+        assertStatus(UCode.INTERNAL, statuses.get(1));
+    }
+
+    @Test
+    @SuppressWarnings("DataFlowIssue")
+    public void testSendBatchWithInvalidArgument() throws RemoteException {
+        testConnect();
+        assertTrue(mManager.sendBatch(null).isEmpty());
+        final List<UStatus> statuses = mManager.sendBatch(Arrays.asList(MESSAGE, null));
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.INVALID_ARGUMENT, status));
+        verify(mService, never()).sendBatch(any(), any());
+    }
+
+    @Test
+    public void testSendBatchEmpty() throws RemoteException {
+        testConnect();
+        assertTrue(mManager.sendBatch(Collections.emptyList()).isEmpty());
+        verify(mService, never()).sendBatch(any(), any());
+    }
+
+    @Test
+    public void testSendBatchDisconnected() throws RemoteException {
+        mManager.setLoggable(Log.VERBOSE);
+        final List<UStatus> statuses = mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertEquals(2, statuses.size());
+        statuses.forEach(status -> assertStatus(UCode.UNAVAILABLE, status));
+        verify(mService, never()).sendBatch(any(), any());
+    }
+
     @Test
     public void testOnReceive() throws RemoteException {
         final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
@@ -505,4 +798,178 @@ public class UBusManagerTest extends TestBase {
         serviceListener.onReceive(new ParcelableUMessage(MESSAGE));
         verify(mListener, times(1)).onReceive(MESSAGE);
     }
+
+    @Test
+    public void testRegisterClientWithBatchDelivery() throws RemoteException {
+        testConnect();
+        verify(mService, times(1)).registerClient(any(), any(), any(),
+                eq(FLAG_BATCH_DELIVERY | FLAG_SHARED_MEMORY_DELIVERY), any());
+    }
+
+    @Test
+    public void testOnReceiveBatch() throws RemoteException {
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        final IUListener serviceListener = captor.getValue();
+        serviceListener.onReceiveBatch(new ParcelableUMessage[] {
+                new ParcelableUMessage(MESSAGE), new ParcelableUMessage(MESSAGE) });
+        verify(mListener, times(2)).onReceive(MESSAGE);
+    }
+
+    @Test
+    public void testOnReceiveBatchWithBatchListener() throws RemoteException {
+        final BatchListener listener = mock(BatchListener.class);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, listener);
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        final IUListener serviceListener = captor.getValue();
+        serviceListener.onReceiveBatch(new ParcelableUMessage[] {
+                new ParcelableUMessage(MESSAGE), new ParcelableUMessage(MESSAGE) });
+        verify(listener, times(1)).onReceiveBatch(List.of(MESSAGE, MESSAGE));
+        verify(listener, never()).onReceive(any());
+    }
+
+    @Test
+    public void testOnReceiveBatchWithDefaultBatchListener() throws RemoteException {
+        final List<UMessage> messages = new ArrayList<>();
+        final BatchListener listener = messages::add; // Implements onReceive() only
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, listener);
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        captor.getValue().onReceiveBatch(new ParcelableUMessage[] {
+                new ParcelableUMessage(MESSAGE), new ParcelableUMessage(LARGE_MESSAGE) });
+        assertEquals(List.of(MESSAGE, LARGE_MESSAGE), messages);
+    }
+
+    @Test
+    public void testOnReceiveWithParcelableListener() throws RemoteException {
+        final ParcelableListener listener = mock(ParcelableListener.class);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, listener);
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        final ParcelableUMessage message = new ParcelableUMessage(MESSAGE);
+        captor.getValue().onReceive(message);
+        verify(listener, times(1)).onReceiveParcels(List.of(message));
+        verify(listener, never()).onReceive(any());
+    }
+
+    @Test
+    public void testOnReceiveBatchWithParcelableListener() throws RemoteException {
+        final ParcelableListener listener = mock(ParcelableListener.class);
+        mManager = new UBusManager(mContext, CLIENT, mConnectionCallback, listener);
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        final ParcelableUMessage message = new ParcelableUMessage(MESSAGE);
+        captor.getValue().onReceiveBatch(new ParcelableUMessage[] { message, message });
+        verify(listener, times(1)).onReceiveParcels(List.of(message, message));
+        verify(listener, never()).onReceiveBatch(any());
+        verify(listener, never()).onReceive(any());
+    }
+
+    @Test
+    public void testOnReceiveShared() throws Exception {
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        try (ParcelableSharedUMessage data = new ParcelableSharedUMessage(LARGE_MESSAGE)) {
+            captor.getValue().onReceiveShared(data);
+        }
+        verify(mListener, times(1)).onReceive(LARGE_MESSAGE);
+    }
+
+    @Test
+    public void testTrafficStatsSent() {
+        testConnect();
+        assertStatus(UCode.OK, mManager.send(MESSAGE));
+        mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        final TopicTraffic traffic = mManager.getTrafficStats().get(RESOURCE_URI);
+        assertEquals(3, traffic.getSentCount());
+        assertEquals(3L * MESSAGE.getSerializedSize(), traffic.getSentBytes());
+        assertTrue(traffic.getLastSentTime() > 0);
+        assertEquals(0, traffic.getReceivedCount());
+        assertEquals(0, traffic.getReceivedBytes());
+        assertEquals(0, traffic.getLastReceivedTime());
+    }
+
+    @Test
+    public void testTrafficStatsSentRequest() {
+        testConnect();
+        final UMessage message = buildMessage(PAYLOAD, buildRequestAttributes(RESPONSE_URI, METHOD_URI));
+        assertStatus(UCode.OK, mManager.send(message));
+        final Map<UUri, TopicTraffic> stats = mManager.getTrafficStats();
+        assertEquals(1, stats.size());
+        assertEquals(1, stats.get(METHOD_URI).getSentCount());
+    }
+
+    @Test
+    public void testTrafficStatsSendFailed() throws RemoteException {
+        testConnect();
+        doReturn(new ParcelableUStatus(buildStatus(UCode.PERMISSION_DENIED))).when(mService).send(any(), any());
+        assertStatus(UCode.PERMISSION_DENIED, mManager.send(MESSAGE));
+        assertTrue(mManager.getTrafficStats().isEmpty());
+    }
+
+    @Test
+    public void testTrafficStatsSendDisconnected() {
+        assertStatus(UCode.UNAVAILABLE, mManager.send(MESSAGE));
+        mManager.sendBatch(List.of(MESSAGE, MESSAGE));
+        assertTrue(mManager.getTrafficStats().isEmpty());
+    }
+
+    @Test
+    public void testTrafficStatsReceived() throws Exception {
+        final ArgumentCaptor<IUListener> captor = ArgumentCaptor.forClass(IUListener.class);
+        doReturn(new ParcelableUStatus(STATUS_OK)).when(mService)
+                .registerClient(any(), any(), any(), anyInt(), captor.capture());
+        testConnect();
+        final IUListener serviceListener = captor.getValue();
+        serviceListener.onReceive(new ParcelableUMessage(MESSAGE));
+        serviceListener.onReceiveBatch(new ParcelableUMessage[] {
+                new ParcelableUMessage(MESSAGE), new ParcelableUMessage(MESSAGE) });
+        try (ParcelableSharedUMessage data = new ParcelableSharedUMessage(LARGE_MESSAGE)) {
+            serviceListener.onReceiveShared(data);
+        }
+        final TopicTraffic traffic = mManager.getTrafficStats().get(RESOURCE_URI);
+        assertEquals(4, traffic.getReceivedCount());
+        assertEquals(3L * MESSAGE.getSerializedSize() + LARGE_MESSAGE.getSerializedSize(),
+                traffic.getReceivedBytes());
+        assertTrue(traffic.getLastReceivedTime() > 0);
+        assertEquals(0, traffic.getSentCount());
+    }
+
+    @Test
+    public void testTrafficStatsTopicsLimit() {
+        testConnect();
+        final List<UMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            final UUri topic = UUri.newBuilder(RESOURCE_URI)
+                    .setResource(UResource.newBuilder().setName("resource").setInstance(String.valueOf(i)))
+                    .build();
+            messages.add(buildMessage(PAYLOAD, buildPublishAttributes(topic)));
+        }
+        mManager.sendBatch(messages);
+        final Map<UUri, TopicTraffic> stats = mManager.getTrafficStats();
+        assertEquals(1025, stats.size());
+        assertEquals(76, stats.get(UUri.getDefaultInstance()).getSentCount());
+    }
+
+    @Test
+    public void testResetTrafficStats() {
+        testConnect();
+        assertStatus(UCode.OK, mManager.send(MESSAGE));
+        assertFalse(mManager.getTrafficStats().isEmpty());
+        mManager.resetTrafficStats();
+        assertTrue(mManager.getTrafficStats().isEmpty());
+    }
 }
@@ -23,14 +23,18 @@
  */
 package org.eclipse.uprotocol.core.udiscovery.v3;
 
+import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
 import static org.eclipse.uprotocol.transport.builder.UPayloadBuilder.packToAny;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -40,9 +44,12 @@ import com.google.protobuf.Message;
 
 import org.eclipse.uprotocol.TestBase;
 import org.eclipse.uprotocol.UprotocolOptions;
+import org.eclipse.uprotocol.common.UStatusException;
 import org.eclipse.uprotocol.rpc.RpcClient;
 import org.eclipse.uprotocol.uri.factory.UResourceBuilder;
 import org.eclipse.uprotocol.v1.UAttributes;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UMessage;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
 import org.junit.Before;
@@ -105,6 +112,30 @@ public class UDiscoveryTest extends TestBase {
         assertEquals(response, getOrThrow(mStub.lookupUri(request).toCompletableFuture()));
     }
 
+    @Test
+    public void testLookupUriCoalesced() {
+        final LookupUriResponse response = LookupUriResponse.getDefaultInstance();
+        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mClient).invokeMethod(any(), any(), any());
+        final CompletableFuture<LookupUriResponse> future1 = mStub.lookupUri(RESOURCE_URI).toCompletableFuture();
+        final CompletableFuture<LookupUriResponse> future2 = mStub.lookupUri(RESOURCE_URI).toCompletableFuture();
+        mStub.lookupUri(RESOURCE2_URI);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+        responseFuture.complete(buildMessage(packToAny(response),
+                buildResponseAttributes(UUri.getDefaultInstance(), RESPONSE_URI, ID)));
+        assertEquals(response, getOrThrow(future1));
+        assertEquals(response, getOrThrow(future2));
+    }
+
+    @Test
+    public void testUpdateNodeNotCoalesced() {
+        final UpdateNodeRequest request = UpdateNodeRequest.getDefaultInstance();
+        doReturn(new CompletableFuture<>()).when(mClient).invokeMethod(any(), any(), any());
+        mStub.updateNode(request);
+        mStub.updateNode(request);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
     @Test
     public void testUpdateNode() {
         final UpdateNodeRequest request = UpdateNodeRequest.getDefaultInstance();
@@ -188,4 +219,74 @@ public class UDiscoveryTest extends TestBase {
         }), any(), any());
         assertFalse(mStub.lookupUri(UUri.getDefaultInstance()).toCompletableFuture().isDone());
     }
+
+    @Test
+    public void testCachingStubLookupUri() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient);
+        final LookupUriResponse response = LookupUriResponse.getDefaultInstance();
+        simulateResponse(response);
+        assertEquals(response, getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture()));
+        assertEquals(response, getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture()));
+        verify(mClient, times(1)).invokeMethod(any(), any(), any());
+        assertEquals(response, getOrThrow(stub.lookupUri(RESOURCE2_URI).toCompletableFuture()));
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testCachingStubResolveUri() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient);
+        final ResolveUriRequest request = ResolveUriRequest.getDefaultInstance();
+        final ResolveUriResponse response = ResolveUriResponse.getDefaultInstance();
+        simulateResponse(response);
+        assertEquals(response, getOrThrow(stub.resolveUri(request).toCompletableFuture()));
+        assertEquals(response, getOrThrow(stub.resolveUri(request).toCompletableFuture()));
+        verify(mClient, times(1)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testCachingStubFailureNotCached() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient);
+        doReturn(CompletableFuture.failedFuture(new UStatusException(UCode.UNAVAILABLE, "Unavailable")))
+                .when(mClient).invokeMethod(any(), any(), any());
+        assertTrue(stub.lookupUri(RESOURCE_URI).toCompletableFuture().isCompletedExceptionally());
+        assertTrue(stub.lookupUri(RESOURCE_URI).toCompletableFuture().isCompletedExceptionally());
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testCachingStubErrorResponseNotCached() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient);
+        final LookupUriResponse response = LookupUriResponse.newBuilder()
+                .setStatus(buildStatus(UCode.NOT_FOUND, "Not found"))
+                .build();
+        simulateResponse(response);
+        assertEquals(response, getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture()));
+        assertEquals(response, getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture()));
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testCachingStubInvalidatedByNotification() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient);
+        final LookupUriResponse response = LookupUriResponse.getDefaultInstance();
+        simulateResponse(response);
+        getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture());
+        stub.onReceive(buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE_URI)));
+        getOrThrow(stub.lookupUri(RESOURCE_URI).toCompletableFuture());
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testCachingStubInvalidatedDuringCall() {
+        final UDiscovery.CachingStub stub = UDiscovery.newCachingStub(mClient, null, OPTIONS, 16, 60_000);
+        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mClient).invokeMethod(any(), any(), any());
+        final CompletableFuture<LookupUriResponse> future = stub.lookupUri(RESOURCE_URI).toCompletableFuture();
+        stub.invalidate();
+        responseFuture.complete(buildMessage(packToAny(LookupUriResponse.getDefaultInstance()),
+                buildResponseAttributes(UUri.getDefaultInstance(), RESPONSE_URI, ID)));
+        getOrThrow(future);
+        stub.lookupUri(RESOURCE_URI);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
 }
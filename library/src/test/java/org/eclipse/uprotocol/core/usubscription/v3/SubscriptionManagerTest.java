@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.usubscription.v3;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
+import static org.eclipse.uprotocol.common.util.UStatusUtils.buildStatus;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.UPClient;
+import org.eclipse.uprotocol.common.UStatusException;
+import org.eclipse.uprotocol.transport.UListener;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UStatus;
+import org.eclipse.uprotocol.v1.UUri;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(AndroidJUnit4.class)
+public class SubscriptionManagerTest extends TestBase {
+    private UPClient mClient;
+    private USubscription.Stub mStub;
+    private UListener mListener;
+    private UListener mListener2;
+    private SubscriptionManager mManager;
+
+    @Before
+    public void setUp() {
+        mClient = mock(UPClient.class);
+        mStub = mock(USubscription.Stub.class);
+        mListener = mock(UListener.class);
+        mListener2 = mock(UListener.class);
+        doReturn(CLIENT_URI).when(mClient).getUri();
+        doReturn(STATUS_OK).when(mClient).registerListener(any(), any());
+        doReturn(STATUS_OK).when(mClient).unregisterListener(any(), any());
+        doReturn(CompletableFuture.completedFuture(STATUS_OK)).when(mStub).unsubscribe(any());
+        mManager = new SubscriptionManager(mClient, mStub);
+    }
+
+    private void simulateSubscriptionResponse(@NonNull SubscriptionStatus.State state) {
+        doReturn(CompletableFuture.completedFuture(SubscriptionResponse.newBuilder()
+                .setStatus(SubscriptionStatus.newBuilder().setState(state))
+                .build())).when(mStub).subscribe(any());
+    }
+
+    private static void assertStatus(@NonNull UCode code, @NonNull CompletableFuture<UStatus> future) {
+        assertEquals(code, getOrThrow(future).getCode());
+    }
+
+    @Test
+    public void testSubscribe() {
+        simulateSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        assertStatus(UCode.OK, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mStub, times(1)).subscribe(argThat(request -> {
+            assertEquals(RESOURCE_URI, request.getTopic());
+            assertEquals(CLIENT_URI, request.getSubscriber().getUri());
+            return true;
+        }));
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener);
+        assertEquals(1, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSubscribeShared() {
+        testSubscribe();
+        assertStatus(UCode.OK, mManager.subscribe(RESOURCE_URI, mListener2).toCompletableFuture());
+        verify(mStub, times(1)).subscribe(any());
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener2);
+        assertEquals(2, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSubscribeSameListenerTwice() {
+        testSubscribe();
+        assertStatus(UCode.OK, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mStub, times(1)).subscribe(any());
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener);
+        assertEquals(1, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSubscribeSameListenerTwiceWhilePending() {
+        final CompletableFuture<SubscriptionResponse> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mStub).subscribe(any());
+        doReturn(buildStatus(UCode.UNAVAILABLE)).when(mClient).registerListener(any(), any());
+        final CompletableFuture<UStatus> future1 = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        final CompletableFuture<UStatus> future2 = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        responseFuture.complete(SubscriptionResponse.newBuilder()
+                .setStatus(SubscriptionStatus.newBuilder().setState(SubscriptionStatus.State.SUBSCRIBED))
+                .build());
+        assertStatus(UCode.UNAVAILABLE, future1);
+        assertStatus(UCode.UNAVAILABLE, future2);
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener);
+    }
+
+    @Test
+    public void testSubscribeWhilePending() {
+        final CompletableFuture<SubscriptionResponse> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mStub).subscribe(any());
+        final CompletableFuture<UStatus> future1 = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        final CompletableFuture<UStatus> future2 = mManager.subscribe(RESOURCE_URI, mListener2).toCompletableFuture();
+        verify(mStub, times(1)).subscribe(any());
+        verify(mClient, never()).registerListener(any(), any());
+        responseFuture.complete(SubscriptionResponse.newBuilder()
+                .setStatus(SubscriptionStatus.newBuilder().setState(SubscriptionStatus.State.SUBSCRIBE_PENDING))
+                .build());
+        assertStatus(UCode.OK, future1);
+        assertStatus(UCode.OK, future2);
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener);
+        verify(mClient, times(1)).registerListener(RESOURCE_URI, mListener2);
+    }
+
+    @Test
+    public void testSubscribeWithInvalidArgument() {
+        assertStatus(UCode.INVALID_ARGUMENT, mManager.subscribe(UUri.getDefaultInstance(), mListener).toCompletableFuture());
+        assertStatus(UCode.INVALID_ARGUMENT, mManager.subscribe(RESOURCE_URI, null).toCompletableFuture());
+        verify(mStub, never()).subscribe(any());
+    }
+
+    @Test
+    public void testSubscribeFailure() {
+        doReturn(CompletableFuture.failedFuture(new UStatusException(UCode.UNAVAILABLE, "Unavailable")))
+                .when(mStub).subscribe(any());
+        assertStatus(UCode.UNAVAILABLE, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mClient, never()).registerListener(any(), any());
+        assertEquals(0, mManager.getListenerCount(RESOURCE_URI));
+
+        simulateSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        assertStatus(UCode.OK, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mStub, times(2)).subscribe(any());
+    }
+
+    @Test
+    public void testSubscribeRejected() {
+        simulateSubscriptionResponse(SubscriptionStatus.State.UNSUBSCRIBED);
+        assertStatus(UCode.FAILED_PRECONDITION, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mClient, never()).registerListener(any(), any());
+        assertEquals(0, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSubscribeRegisterListenerFailure() {
+        simulateSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        doReturn(buildStatus(UCode.UNAVAILABLE)).when(mClient).registerListener(any(), any());
+        assertStatus(UCode.UNAVAILABLE, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mStub, times(1)).unsubscribe(any());
+        assertEquals(0, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        testSubscribeShared();
+        assertStatus(UCode.OK, mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mClient, times(1)).unregisterListener(RESOURCE_URI, mListener);
+        verify(mStub, never()).unsubscribe(any());
+
+        assertStatus(UCode.OK, mManager.unsubscribe(RESOURCE_URI, mListener2).toCompletableFuture());
+        verify(mClient, times(1)).unregisterListener(RESOURCE_URI, mListener2);
+        verify(mStub, times(1)).unsubscribe(argThat(request -> {
+            assertEquals(RESOURCE_URI, request.getTopic());
+            assertEquals(CLIENT_URI, request.getSubscriber().getUri());
+            return true;
+        }));
+        assertEquals(0, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testUnsubscribeNotSubscribed() {
+        assertStatus(UCode.OK, mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mClient, never()).unregisterListener(any(), any());
+        verify(mStub, never()).unsubscribe(any());
+    }
+
+    @Test
+    public void testUnsubscribeFailure() {
+        testSubscribe();
+        doReturn(CompletableFuture.failedFuture(new UStatusException(UCode.UNAVAILABLE, "Unavailable")))
+                .when(mStub).unsubscribe(any());
+        assertStatus(UCode.UNAVAILABLE, mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture());
+    }
+
+    @Test
+    public void testUnsubscribeWhilePending() {
+        final CompletableFuture<SubscriptionResponse> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mStub).subscribe(any());
+        final CompletableFuture<UStatus> future = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        final CompletableFuture<UStatus> unsubscribeFuture =
+                mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        assertFalse(unsubscribeFuture.isDone());
+        verify(mStub, never()).unsubscribe(any());
+        responseFuture.complete(SubscriptionResponse.newBuilder()
+                .setStatus(SubscriptionStatus.newBuilder().setState(SubscriptionStatus.State.SUBSCRIBED))
+                .build());
+        assertStatus(UCode.OK, unsubscribeFuture);
+        verify(mStub, times(1)).unsubscribe(any());
+        assertStatus(UCode.CANCELLED, future);
+        verify(mClient, never()).registerListener(any(), any());
+        assertFalse(mManager.getListenerCount(RESOURCE_URI) > 0);
+    }
+
+    @Test
+    public void testUnsubscribeWhilePendingFailed() {
+        final CompletableFuture<SubscriptionResponse> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mStub).subscribe(any());
+        final CompletableFuture<UStatus> future = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        final CompletableFuture<UStatus> unsubscribeFuture =
+                mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        responseFuture.completeExceptionally(new UStatusException(UCode.UNAVAILABLE, "Unavailable"));
+        assertStatus(UCode.OK, unsubscribeFuture);
+        assertStatus(UCode.UNAVAILABLE, future);
+        verify(mStub, never()).unsubscribe(any());
+    }
+
+    @Test
+    public void testSubscribeWhileUnsubscribing() {
+        testSubscribe();
+        final CompletableFuture<UStatus> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mStub).unsubscribe(any());
+        final CompletableFuture<UStatus> unsubscribeFuture =
+                mManager.unsubscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        final CompletableFuture<UStatus> future = mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture();
+        verify(mStub, times(1)).subscribe(any());
+        assertFalse(future.isDone());
+
+        responseFuture.complete(STATUS_OK);
+        assertStatus(UCode.OK, unsubscribeFuture);
+        assertStatus(UCode.OK, future);
+        final InOrder inOrder = inOrder(mStub, mClient);
+        inOrder.verify(mStub).unsubscribe(any());
+        inOrder.verify(mStub).subscribe(any());
+        inOrder.verify(mClient).registerListener(RESOURCE_URI, mListener);
+        assertEquals(1, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testUnsubscribeWhileRegistering() {
+        simulateSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        doAnswer(invocation -> {
+            // The listener leaves while its registration is in progress
+            mManager.unsubscribe(RESOURCE_URI, mListener);
+            return STATUS_OK;
+        }).when(mClient).registerListener(RESOURCE_URI, mListener);
+        assertStatus(UCode.CANCELLED, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+        verify(mClient, times(2)).unregisterListener(RESOURCE_URI, mListener);
+        verify(mStub, times(1)).unsubscribe(any());
+        assertEquals(0, mManager.getListenerCount(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSubscribeWithoutHoldingLock() {
+        simulateSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        doAnswer(invocation -> {
+            // Another thread can use the manager during a registration
+            assertEquals(1, CompletableFuture.supplyAsync(() -> mManager.getListenerCount(RESOURCE_URI))
+                    .get(DELAY_MS, TimeUnit.MILLISECONDS).intValue());
+            return STATUS_OK;
+        }).when(mClient).registerListener(any(), any());
+        assertStatus(UCode.OK, mManager.subscribe(RESOURCE_URI, mListener).toCompletableFuture());
+    }
+}
@@ -31,6 +31,8 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -39,10 +41,12 @@ import com.google.protobuf.DescriptorProtos.ServiceOptions;
 import com.google.protobuf.Message;
 
 import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.UPClient;
 import org.eclipse.uprotocol.UprotocolOptions;
 import org.eclipse.uprotocol.rpc.RpcClient;
 import org.eclipse.uprotocol.uri.factory.UResourceBuilder;
 import org.eclipse.uprotocol.v1.UAttributes;
+import org.eclipse.uprotocol.v1.UMessage;
 import org.eclipse.uprotocol.v1.UStatus;
 import org.eclipse.uprotocol.v1.UUri;
 import org.junit.Before;
@@ -180,4 +184,151 @@ public class USubscriptionTest extends TestBase {
         }), any(), any());
         assertFalse(mStub.subscribe(SubscriptionRequest.getDefaultInstance()).toCompletableFuture().isDone());
     }
+
+    private static @NonNull SubscriptionRequest buildSubscriptionRequest(@NonNull UUri topic) {
+        return SubscriptionRequest.newBuilder()
+                .setTopic(topic)
+                .setSubscriber(SubscriberInfo.newBuilder().setUri(CLIENT_URI))
+                .build();
+    }
+
+    private static @NonNull SubscriptionResponse buildSubscriptionResponse(@NonNull SubscriptionStatus.State state) {
+        return SubscriptionResponse.newBuilder()
+                .setStatus(SubscriptionStatus.newBuilder().setState(state))
+                .build();
+    }
+
+    @Test
+    public void testSubscribeCached() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        final SubscriptionResponse response = buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED);
+        simulateResponse(response);
+        assertEquals(response, getOrThrow(mStub.subscribe(request).toCompletableFuture()));
+        assertEquals(response, getOrThrow(mStub.subscribe(request).toCompletableFuture()));
+        verify(mClient, times(1)).invokeMethod(any(), any(), any());
+        mStub.subscribe(buildSubscriptionRequest(RESOURCE2_URI));
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribePendingNotCached() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBE_PENDING));
+        mStub.subscribe(request);
+        mStub.subscribe(request);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeWithOtherAttributesNotCached() {
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(buildSubscriptionRequest(RESOURCE_URI));
+        mStub.subscribe(SubscriptionRequest.newBuilder(buildSubscriptionRequest(RESOURCE_URI))
+                .setAttributes(SubscribeAttributes.newBuilder().setSamplePeriodMs(100))
+                .build());
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterUnsubscribe() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        mStub.unsubscribe(UnsubscribeRequest.newBuilder()
+                .setTopic(request.getTopic())
+                .setSubscriber(request.getSubscriber())
+                .build());
+        mStub.subscribe(request);
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeUnsubscribedDuringCall() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mClient).invokeMethod(any(), any(), any());
+        final CompletableFuture<SubscriptionResponse> future = mStub.subscribe(request).toCompletableFuture();
+        mStub.unsubscribe(UnsubscribeRequest.newBuilder()
+                .setTopic(request.getTopic())
+                .setSubscriber(request.getSubscriber())
+                .build());
+        responseFuture.complete(buildMessage(packToAny(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED)),
+                buildResponseAttributes(UUri.getDefaultInstance(), RESPONSE_URI, ID)));
+        getOrThrow(future);
+        mStub.subscribe(request);
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterFetchSubscriptions() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        simulateResponse(FetchSubscriptionsResponse.newBuilder()
+                .addSubscriptions(Subscription.newBuilder()
+                        .setTopic(request.getTopic())
+                        .setSubscriber(request.getSubscriber())
+                        .setStatus(SubscriptionStatus.newBuilder().setState(SubscriptionStatus.State.UNSUBSCRIBED)))
+                .build());
+        mStub.fetchSubscriptions(FetchSubscriptionsRequest.newBuilder().setTopic(RESOURCE_URI).build());
+        mStub.subscribe(request);
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterFetchSubscriptionsWithoutIt() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        simulateResponse(FetchSubscriptionsResponse.getDefaultInstance());
+        mStub.fetchSubscriptions(FetchSubscriptionsRequest.newBuilder().setSubscriber(request.getSubscriber()).build());
+        mStub.subscribe(request);
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterFetchSubscriptionsOfOtherTopic() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        simulateResponse(FetchSubscriptionsResponse.getDefaultInstance());
+        mStub.fetchSubscriptions(FetchSubscriptionsRequest.newBuilder().setTopic(RESOURCE2_URI).build());
+        mStub.subscribe(request);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterReconnect() {
+        final UPClient client = mock(UPClient.class);
+        mClient = client;
+        mStub = USubscription.newStub(client);
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        mStub.subscribe(request);
+        verify(mClient, times(1)).invokeMethod(any(), any(), any());
+        doReturn(1).when(client).getConnectionGeneration();
+        mStub.subscribe(request);
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testNewStubWithCacheSize() {
+        mStub = USubscription.newStub(mClient, null, OPTIONS, 1, 60_000);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(buildSubscriptionRequest(RESOURCE_URI));
+        mStub.subscribe(buildSubscriptionRequest(RESOURCE2_URI));
+        mStub.subscribe(buildSubscriptionRequest(RESOURCE_URI)); // Evicted
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
+
+    @Test
+    public void testSubscribeAfterReset() {
+        final SubscriptionRequest request = buildSubscriptionRequest(RESOURCE_URI);
+        simulateResponse(buildSubscriptionResponse(SubscriptionStatus.State.SUBSCRIBED));
+        mStub.subscribe(request);
+        mStub.reset(ResetRequest.getDefaultInstance());
+        mStub.subscribe(request);
+        verify(mClient, times(3)).invokeMethod(any(), any(), any());
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.core.utwin.v2;
+
+import static org.eclipse.uprotocol.common.util.UStatusUtils.STATUS_OK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.common.UStatusException;
+import org.eclipse.uprotocol.v1.UCode;
+import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UUri;
+import org.eclipse.uprotocol.v1.UUriBatch;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(AndroidJUnit4.class)
+public class LastMessageAggregatorTest extends TestBase {
+    private static final UMessage MESSAGE = buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE_URI));
+    private static final UMessage MESSAGE2 = buildMessage(PAYLOAD, buildPublishAttributes(RESOURCE2_URI));
+
+    private UTwin.Stub mStub;
+    private Executor mExecutor;
+    private LastMessageAggregator mAggregator;
+
+    @Before
+    public void setUp() {
+        mStub = mock(UTwin.Stub.class);
+        // Batches are sent explicitly unless a test says otherwise
+        mExecutor = newMockExecutor();
+        mAggregator = new LastMessageAggregator(mStub, mExecutor, 1, TimeUnit.HOURS, 3);
+    }
+
+    private static @NonNull MessageResponse buildMessageResponse(@NonNull UMessage message) {
+        return MessageResponse.newBuilder()
+                .setTopic(message.getAttributes().getSource())
+                .setStatus(STATUS_OK)
+                .setMessage(message)
+                .build();
+    }
+
+    private void simulateResponse(@NonNull MessageResponse... responses) {
+        doReturn(CompletableFuture.completedFuture(GetLastMessagesResponse.newBuilder()
+                .addAllResponses(List.of(responses))
+                .build())).when(mStub).getLastMessages(any());
+    }
+
+    private @NonNull UUriBatch verifyBatch() {
+        final ArgumentCaptor<UUriBatch> captor = ArgumentCaptor.forClass(UUriBatch.class);
+        verify(mStub, times(1)).getLastMessages(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void testConstructorWithInvalidArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new LastMessageAggregator(mStub, mExecutor, 0, TimeUnit.MILLISECONDS, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LastMessageAggregator(mStub, mExecutor, 1, TimeUnit.MILLISECONDS, 0));
+        assertThrows(NullPointerException.class, () -> new LastMessageAggregator(mStub, null));
+    }
+
+    @Test
+    @SuppressWarnings("DataFlowIssue")
+    public void testGetLastMessageWithInvalidArgument() {
+        assertTrue(mAggregator.getLastMessage(null).toCompletableFuture().isCompletedExceptionally());
+        assertTrue(mAggregator.getLastMessage(UUri.getDefaultInstance()).toCompletableFuture()
+                .isCompletedExceptionally());
+        mAggregator.flush();
+        verify(mStub, never()).getLastMessages(any());
+    }
+
+    @Test
+    public void testGetLastMessage() {
+        simulateResponse(buildMessageResponse(MESSAGE), buildMessageResponse(MESSAGE2));
+        final CompletableFuture<MessageResponse> future1 = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        final CompletableFuture<MessageResponse> future2 = mAggregator.getLastMessage(RESOURCE2_URI).toCompletableFuture();
+        verify(mStub, never()).getLastMessages(any());
+        mAggregator.flush();
+        assertEquals(List.of(RESOURCE_URI, RESOURCE2_URI), verifyBatch().getUrisList());
+        assertEquals(MESSAGE, getOrThrow(future1).getMessage());
+        assertEquals(MESSAGE2, getOrThrow(future2).getMessage());
+    }
+
+    @Test
+    public void testGetLastMessageSameTopic() {
+        simulateResponse(buildMessageResponse(MESSAGE));
+        final CompletableFuture<MessageResponse> future1 = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        final CompletableFuture<MessageResponse> future2 = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        mAggregator.flush();
+        assertEquals(List.of(RESOURCE_URI), verifyBatch().getUrisList());
+        assertEquals(MESSAGE, getOrThrow(future1).getMessage());
+        assertEquals(MESSAGE, getOrThrow(future2).getMessage());
+    }
+
+    @Test
+    public void testGetLastMessageMissingResponse() {
+        simulateResponse(buildMessageResponse(MESSAGE));
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE2_URI).toCompletableFuture();
+        mAggregator.flush();
+        assertEquals(UCode.NOT_FOUND, getOrThrow(future).getStatus().getCode());
+        assertEquals(RESOURCE2_URI, getOrThrow(future).getTopic());
+    }
+
+    @Test
+    public void testGetLastMessageFailure() {
+        doReturn(CompletableFuture.failedFuture(new UStatusException(UCode.UNAVAILABLE, "Unavailable")))
+                .when(mStub).getLastMessages(any());
+        final CompletableFuture<MessageResponse> future1 = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        final CompletableFuture<MessageResponse> future2 = mAggregator.getLastMessage(RESOURCE2_URI).toCompletableFuture();
+        mAggregator.flush();
+        assertTrue(future1.isCompletedExceptionally());
+        assertTrue(future2.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testGetLastMessageStubThrows() {
+        doThrow(new IllegalStateException()).when(mStub).getLastMessages(any());
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        mAggregator.flush();
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testGetLastMessageNullResponse() {
+        doReturn(CompletableFuture.completedFuture(null)).when(mStub).getLastMessages(any());
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        mAggregator.flush();
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testGetLastMessageMaxBatchSize() {
+        simulateResponse(buildMessageResponse(MESSAGE));
+        mAggregator.getLastMessage(RESOURCE_URI);
+        mAggregator.getLastMessage(RESOURCE2_URI);
+        verify(mStub, never()).getLastMessages(any());
+        mAggregator.getLastMessage(METHOD_URI);
+        assertEquals(3, verifyBatch().getUrisCount());
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        assertFalse(future.isDone());
+    }
+
+    @Test
+    public void testGetLastMessageAfterWindow() {
+        mAggregator = new LastMessageAggregator(mStub, mExecutor);
+        simulateResponse(buildMessageResponse(MESSAGE));
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        verify(mStub, timeout(DELAY_MS).times(1)).getLastMessages(any());
+        verify(mExecutor, times(1)).execute(any());
+        assertEquals(MESSAGE, getOrThrow(future).getMessage());
+    }
+
+    @Test
+    public void testGetLastMessageAfterWindowRejected() {
+        doThrow(new RejectedExecutionException()).when(mExecutor).execute(any());
+        mAggregator = new LastMessageAggregator(mStub, mExecutor);
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        verify(mExecutor, timeout(DELAY_MS).times(1)).execute(any());
+        assertThrows(ExecutionException.class, () -> future.get(DELAY_MS, TimeUnit.MILLISECONDS));
+        verify(mStub, never()).getLastMessages(any());
+    }
+
+    @Test
+    public void testClose() {
+        final CompletableFuture<MessageResponse> future = mAggregator.getLastMessage(RESOURCE_URI).toCompletableFuture();
+        mAggregator.close();
+        assertTrue(future.isCompletedExceptionally());
+        mAggregator.flush();
+        verify(mStub, never()).getLastMessages(any());
+    }
+
+    @Test
+    public void testFlushEmpty() {
+        mAggregator.flush();
+        verify(mStub, never()).getLastMessages(any());
+    }
+}
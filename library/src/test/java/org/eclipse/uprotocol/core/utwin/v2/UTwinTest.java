@@ -31,6 +31,8 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -107,6 +109,26 @@ public class UTwinTest extends TestBase {
         assertEquals(response, getOrThrow(mStub.getLastMessages(request).toCompletableFuture()));
     }
 
+    @Test
+    public void testGetLastMessagesCoalesced() {
+        final UUriBatch request = UUriBatch.newBuilder().addUris(RESOURCE_URI).build();
+        final GetLastMessagesResponse response = GetLastMessagesResponse.getDefaultInstance();
+        final CompletableFuture<UMessage> responseFuture = new CompletableFuture<>();
+        doReturn(responseFuture).when(mClient).invokeMethod(any(), any(), any());
+        final CompletableFuture<GetLastMessagesResponse> future1 = mStub.getLastMessages(request).toCompletableFuture();
+        final CompletableFuture<GetLastMessagesResponse> future2 =
+                mStub.getLastMessages(UUriBatch.newBuilder(request).build()).toCompletableFuture();
+        verify(mClient, times(1)).invokeMethod(any(), any(), any());
+        responseFuture.complete(buildMessage(packToAny(response),
+                buildResponseAttributes(UUri.getDefaultInstance(), RESPONSE_URI, ID)));
+        assertEquals(response, getOrThrow(future1));
+        assertEquals(response, getOrThrow(future2));
+
+        simulateResponse(response);
+        assertEquals(response, getOrThrow(mStub.getLastMessages(request).toCompletableFuture()));
+        verify(mClient, times(2)).invokeMethod(any(), any(), any());
+    }
+
     @Test
     public void testSetLastMessage() {
         final UMessage request = UMessage.getDefaultInstance();
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.uri.serializer.LongUriSerializer;
+import org.eclipse.uprotocol.v1.UUri;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class CachingUriSerializerTest extends TestBase {
+    private final CachingUriSerializer mSerializer = new CachingUriSerializer(4);
+
+    @Test
+    public void testConstructorWithInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingUriSerializer(0));
+    }
+
+    @Test
+    public void testInstance() {
+        assertSame(CachingUriSerializer.instance(), CachingUriSerializer.instance());
+    }
+
+    @Test
+    public void testSerialize() {
+        assertEquals(LongUriSerializer.instance().serialize(RESOURCE_URI), mSerializer.serialize(RESOURCE_URI));
+    }
+
+    @Test
+    public void testSerializeCached() {
+        final String string = mSerializer.serialize(RESOURCE_URI);
+        assertSame(string, mSerializer.serialize(RESOURCE_URI));
+        assertSame(string, mSerializer.serialize(UUri.newBuilder(RESOURCE_URI).build()));
+    }
+
+    @Test
+    public void testSerializeReplaced() {
+        final CachingUriSerializer serializer = new CachingUriSerializer(1);
+        final String string = serializer.serialize(RESOURCE_URI);
+        assertEquals(LongUriSerializer.instance().serialize(RESOURCE2_URI), serializer.serialize(RESOURCE2_URI));
+        final String newString = serializer.serialize(RESOURCE_URI);
+        assertEquals(string, newString);
+        assertNotSame(string, newString);
+    }
+
+    @Test
+    public void testSerializeNull() {
+        assertEquals(LongUriSerializer.instance().serialize(null), mSerializer.serialize(null));
+    }
+}
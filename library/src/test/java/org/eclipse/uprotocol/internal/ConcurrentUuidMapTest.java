@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(AndroidJUnit4.class)
+public class ConcurrentUuidMapTest extends TestBase {
+    private final ConcurrentUuidMap<String> mMap = new ConcurrentUuidMap<>();
+
+    @Test
+    public void testConstructorWithInvalidArgument() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentUuidMap<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentUuidMap<>(3));
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        assertNull(mMap.putIfAbsent(1, 2, "a"));
+        assertEquals("a", mMap.putIfAbsent(1, 2, "b"));
+        assertEquals("a", mMap.get(1, 2));
+        assertEquals(1, mMap.size());
+    }
+
+    @Test
+    public void testRemoveValue() {
+        mMap.putIfAbsent(1, 2, "a");
+        assertFalse(mMap.remove(1, 2, "b"));
+        assertEquals("a", mMap.get(1, 2));
+        assertTrue(mMap.remove(1, 2, "a"));
+        assertFalse(mMap.remove(1, 2, "a"));
+        assertEquals(0, mMap.size());
+    }
+
+    @Test
+    public void testGetNotFound() {
+        mMap.putIfAbsent(1, 2, "a");
+        assertNull(mMap.get(2, 1));
+        assertNull(mMap.get(1, 3));
+    }
+
+    @Test
+    public void testRemove() {
+        mMap.putIfAbsent(1, 2, "a");
+        assertEquals("a", mMap.remove(1, 2));
+        assertNull(mMap.remove(1, 2));
+        assertEquals(0, mMap.size());
+    }
+
+    @Test
+    public void testRemoveAll() {
+        mMap.putIfAbsent(1, 2, "a");
+        mMap.putIfAbsent(3, 4, "b");
+        final List<String> values = mMap.removeAll();
+        assertEquals(2, values.size());
+        assertTrue(values.containsAll(List.of("a", "b")));
+        assertEquals(0, mMap.size());
+        assertNull(mMap.get(1, 2));
+    }
+
+    @Test
+    public void testRemoveShrinks() {
+        final int initialCapacity = mMap.capacity();
+        for (int i = 0; i < 1000; i++) {
+            mMap.putIfAbsent(i, i, String.valueOf(i));
+        }
+        assertTrue(mMap.capacity() > initialCapacity);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(String.valueOf(i), mMap.remove(i, i));
+        }
+        assertEquals(initialCapacity, mMap.capacity());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        // Few distinct keys to exercise collisions, growth and removal shifts
+        final ConcurrentUuidMap<String> map = new ConcurrentUuidMap<>(1);
+        final Map<List<Long>, String> expected = new HashMap<>();
+        final Random random = new Random(0);
+        for (int i = 0; i < 100_000; i++) {
+            final long msb = random.nextInt(200);
+            final long lsb = random.nextInt(2);
+            final List<Long> key = List.of(msb, lsb);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    final String value = String.valueOf(i);
+                    assertEquals(expected.putIfAbsent(key, value), map.putIfAbsent(msb, lsb, value));
+                }
+                case 1 -> assertEquals(expected.remove(key), map.remove(msb, lsb));
+                default -> assertEquals(expected.get(key), map.get(msb, lsb));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+    }
+
+    @Test
+    public void testConcurrentOperations() throws InterruptedException {
+        final int threads = 8;
+        final int count = 10_000;
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch latch = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                final long msb = t;
+                pool.execute(() -> {
+                    for (int i = 0; i < count; i++) {
+                        final String value = String.valueOf(i);
+                        assertNull(mMap.putIfAbsent(msb, i, value));
+                        assertEquals(value, mMap.get(msb, i));
+                        if (i % 2 == 0) {
+                            assertTrue(Objects.equals(value, mMap.remove(msb, i)));
+                        }
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(DELAY_MS * 50, TimeUnit.MILLISECONDS));
+            assertEquals(threads * count / 2, mMap.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(AndroidJUnit4.class)
+public class LatencyHistogramTest extends TestBase {
+    private final LatencyHistogram mHistogram = new LatencyHistogram();
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("Expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 16);
+    }
+
+    @Test
+    public void testEmpty() {
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean(), 0);
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        for (int i = 0; i < 16; i++) {
+            mHistogram.record(i);
+        }
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertEquals(16, snapshot.getCount());
+        assertEquals(15, snapshot.getMax());
+        assertEquals(7.5, snapshot.getMean(), 0);
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(7, snapshot.getValueAtPercentile(50));
+        assertEquals(15, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentiles() {
+        for (long i = 1; i <= 1000; i++) {
+            mHistogram.record(i * 1000);
+        }
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(500500, snapshot.getMean(), 0);
+        assertWithinError(500000, snapshot.getValueAtPercentile(50));
+        assertWithinError(900000, snapshot.getValueAtPercentile(90));
+        assertWithinError(990000, snapshot.getValueAtPercentile(99));
+        assertEquals(1000000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentileOutOfRange() {
+        mHistogram.record(100);
+        mHistogram.record(200);
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertWithinError(100, snapshot.getValueAtPercentile(-1));
+        assertEquals(200, snapshot.getValueAtPercentile(101));
+    }
+
+    @Test
+    public void testRecordNegative() {
+        mHistogram.record(-1);
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertEquals(1, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+    }
+
+    @Test
+    public void testRecordLargest() {
+        mHistogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, mHistogram.snapshot().getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        mHistogram.record(10);
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        mHistogram.record(20);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(10, snapshot.getMax());
+    }
+
+    @Test
+    public void testRecordConcurrently() throws InterruptedException {
+        final int threads = 4;
+        final int count = 10000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 1; j <= count; j++) {
+                    mHistogram.record(j);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(DELAY_MS * 10L, TimeUnit.MILLISECONDS));
+        executor.shutdown();
+        final LatencyHistogram.Snapshot snapshot = mHistogram.snapshot();
+        assertEquals((long) threads * count, snapshot.getCount());
+        assertEquals(count, snapshot.getMax());
+    }
+}
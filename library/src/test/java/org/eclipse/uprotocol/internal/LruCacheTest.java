@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(AndroidJUnit4.class)
+public class LruCacheTest extends TestBase {
+    private static final long TTL_MS = 1000;
+
+    private final AtomicLong mTime = new AtomicLong();
+    private final LruCache<String, String> mCache = new LruCache<>(2, TTL_MS, TimeUnit.MILLISECONDS, mTime::get);
+
+    private void advanceTime(long millis) {
+        mTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void testConstructorWithInvalidArgument() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<>(0, TTL_MS, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<>(1, 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        mCache.put("a", "1");
+        assertEquals("1", mCache.get("a"));
+        assertNull(mCache.get("b"));
+        assertEquals(1, mCache.size());
+    }
+
+    @Test
+    public void testGetExpired() {
+        mCache.put("a", "1");
+        advanceTime(TTL_MS - 1);
+        assertEquals("1", mCache.get("a"));
+        advanceTime(1);
+        assertNull(mCache.get("a"));
+        assertEquals(0, mCache.size());
+    }
+
+    @Test
+    public void testPutRenewsTtl() {
+        mCache.put("a", "1");
+        advanceTime(TTL_MS / 2);
+        mCache.put("a", "2");
+        advanceTime(TTL_MS / 2);
+        assertEquals("2", mCache.get("a"));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        mCache.put("a", "1");
+        mCache.put("b", "2");
+        mCache.get("a");
+        mCache.put("c", "3");
+        assertEquals("1", mCache.get("a"));
+        assertNull(mCache.get("b"));
+        assertEquals("3", mCache.get("c"));
+        assertEquals(2, mCache.size());
+    }
+
+    @Test
+    public void testRemove() {
+        mCache.put("a", "1");
+        mCache.remove("a");
+        assertNull(mCache.get("a"));
+    }
+
+    @Test
+    public void testRemoveIf() {
+        mCache.put("a", "1");
+        mCache.put("b", "2");
+        mCache.removeIf(key -> key.equals("a"));
+        assertNull(mCache.get("a"));
+        assertEquals("2", mCache.get("b"));
+    }
+
+    @Test
+    public void testClear() {
+        mCache.put("a", "1");
+        mCache.put("b", "2");
+        mCache.clear();
+        assertEquals(0, mCache.size());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.common.util.log.Formatter;
+import org.eclipse.uprotocol.v1.UCode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(AndroidJUnit4.class)
+public class MessageTraceTest extends TestBase {
+    private final AtomicLong mTime = new AtomicLong();
+    private final MessageTrace mTrace = new MessageTrace(4, mTime::get);
+
+    private @NonNull String[] dump() {
+        final StringWriter writer = new StringWriter();
+        mTrace.dump(new PrintWriter(writer));
+        return writer.toString().split(System.lineSeparator());
+    }
+
+    @Test
+    public void testConstructorWithInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new MessageTrace(0));
+        assertThrows(IllegalArgumentException.class, () -> new MessageTrace(-1));
+    }
+
+    @Test
+    public void testCapacity() {
+        assertEquals(4, mTrace.getCapacity());
+        assertEquals(8, new MessageTrace(5).getCapacity());
+        assertEquals(1, new MessageTrace(1).getCapacity());
+    }
+
+    @Test
+    public void testRecord() {
+        mTrace.record(MessageTrace.EVENT_RECEIVE, MessageTrace.REASON_NONE, ATTRIBUTES, UCode.OK);
+        assertEquals(1, mTrace.size());
+    }
+
+    @Test
+    public void testRecordOverwritesOldest() {
+        for (int i = 0; i < 6; i++) {
+            mTrace.record(MessageTrace.EVENT_SEND, MessageTrace.REASON_NONE, ID, RESOURCE_URI, UCode.forNumber(i));
+        }
+        assertEquals(4, mTrace.size());
+        final String[] lines = dump();
+        assertEquals(5, lines.length);
+        assertTrue(lines[1].contains("code: " + UCode.forNumber(2)));
+        assertTrue(lines[4].contains("code: " + UCode.forNumber(5)));
+    }
+
+    @Test
+    public void testDump() {
+        mTrace.record(MessageTrace.EVENT_SEND, MessageTrace.REASON_NONE, ID, RESOURCE_URI, UCode.OK);
+        mTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        mTrace.record(MessageTrace.EVENT_DROP, MessageTrace.REASON_EXPIRED, ID, RESOURCE_URI, UCode.DEADLINE_EXCEEDED);
+        final String[] lines = dump();
+        assertEquals("count: 2, size: 4", lines[0]);
+        assertEquals("time: -5.000ms, event: send, id: " + Formatter.stringify(ID) +
+                ", topic: " + Formatter.stringify(RESOURCE_URI) + ", code: OK", lines[1]);
+        assertEquals("time: -0.000ms, event: drop, id: " + Formatter.stringify(ID) +
+                ", topic: " + Formatter.stringify(RESOURCE_URI) + ", code: DEADLINE_EXCEEDED, reason: expired",
+                lines[2]);
+    }
+
+    @Test
+    public void testDumpEmpty() {
+        final String[] lines = dump();
+        assertEquals(1, lines.length);
+        assertEquals("count: 0, size: 4", lines[0]);
+    }
+
+    @Test
+    public void testDumpUnknownTopic() {
+        mTrace.record(MessageTrace.EVENT_DROP, MessageTrace.REASON_QUEUE_FULL, null, null, UCode.RESOURCE_EXHAUSTED);
+        final String[] lines = dump();
+        assertTrue(lines[1].contains("reason: queueFull"));
+        assertFalse(lines[1].contains(Formatter.stringify(RESOURCE_URI)));
+    }
+
+    @Test
+    public void testRecordRequest() {
+        mTrace.record(MessageTrace.EVENT_RPC_COMPLETE, MessageTrace.REASON_NONE,
+                buildRequestAttributes(RESPONSE_URI, METHOD_URI), UCode.OK);
+        assertTrue(dump()[1].contains("topic: " + Formatter.stringify(METHOD_URI)));
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RunWith(AndroidJUnit4.class)
+public class SerialExecutorTest extends TestBase {
+    @Test
+    public void testExecute() {
+        final Executor executor = newMockExecutor();
+        final SerialExecutor serialExecutor = new SerialExecutor(executor);
+        final Runnable task = mock(Runnable.class);
+        serialExecutor.execute(task);
+        verify(task, times(1)).run();
+        verify(executor, times(1)).execute(any());
+    }
+
+    @Test
+    public void testExecuteInOrder() throws InterruptedException {
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final SerialExecutor serialExecutor = new SerialExecutor(pool);
+            final List<Integer> results = new ArrayList<>();
+            final AtomicInteger running = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(1000);
+            for (int i = 0; i < 1000; i++) {
+                final int value = i;
+                serialExecutor.execute(() -> {
+                    assertEquals(1, running.incrementAndGet());
+                    results.add(value);
+                    running.decrementAndGet();
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(DELAY_MS * 10, TimeUnit.MILLISECONDS));
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, (int) results.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecuteSharedExecutor() {
+        final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        final Executor executor = pending::add; // A single thread
+        final SerialExecutor serialExecutor1 = new SerialExecutor(executor);
+        final SerialExecutor serialExecutor2 = new SerialExecutor(executor);
+        final int count = SerialExecutor.MAX_DRAIN_BATCH_SIZE * 2;
+        final List<String> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final int value = i;
+            serialExecutor1.execute(() -> results.add("a" + value));
+            serialExecutor2.execute(() -> results.add("b" + value));
+        }
+        Runnable command;
+        while ((command = pending.poll()) != null) {
+            command.run();
+        }
+        assertEquals(count * 2, results.size());
+        // Tasks of both instances take turns instead of waiting for the other queue to become empty
+        assertEquals("b0", results.get(SerialExecutor.MAX_DRAIN_BATCH_SIZE));
+        assertEquals("a" + SerialExecutor.MAX_DRAIN_BATCH_SIZE, results.get(SerialExecutor.MAX_DRAIN_BATCH_SIZE * 2));
+    }
+
+    @Test
+    public void testExecuteAfterFailedTask() {
+        final Executor executor = newMockExecutor();
+        final SerialExecutor serialExecutor = new SerialExecutor(executor);
+        final Runnable task = mock(Runnable.class);
+        doThrow(new RuntimeException()).when(task).run();
+        assertThrows(RuntimeException.class, () -> serialExecutor.execute(task));
+        final Runnable task2 = mock(Runnable.class);
+        serialExecutor.execute(task2);
+        verify(task2, times(1)).run();
+    }
+
+    @Test
+    public void testExecuteRejected() {
+        final Executor executor = mock(Executor.class);
+        doThrow(new RejectedExecutionException()).when(executor).execute(any());
+        final SerialExecutor serialExecutor = new SerialExecutor(executor);
+        final Runnable task = mock(Runnable.class);
+        assertThrows(RejectedExecutionException.class, () -> serialExecutor.execute(task));
+        assertThrows(RejectedExecutionException.class, () -> serialExecutor.execute(task));
+        verify(executor, times(2)).execute(any());
+        verify(task, never()).run();
+    }
+
+    private static void runPendingTasks(@NonNull Executor executor) {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(1)).execute(captor.capture());
+        captor.getValue().run();
+    }
+
+    @Test
+    public void testConstructorWithInvalidArgument() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SerialExecutor(mock(Executor.class), -1, SerialExecutor.OVERFLOW_DROP_OLDEST, null));
+    }
+
+    @Test
+    public void testExecuteDropOldest() {
+        final Executor executor = mock(Executor.class);
+        final SerialExecutor.DropListener dropListener = mock(SerialExecutor.DropListener.class);
+        final SerialExecutor serialExecutor =
+                new SerialExecutor(executor, 2, SerialExecutor.OVERFLOW_DROP_OLDEST, dropListener);
+        final Runnable task1 = mock(Runnable.class);
+        final Runnable task2 = mock(Runnable.class);
+        final Runnable task3 = mock(Runnable.class);
+        serialExecutor.execute("1", task1);
+        serialExecutor.execute("2", task2);
+        serialExecutor.execute("3", task3);
+        assertEquals(2, serialExecutor.size());
+        verify(dropListener, times(1)).onDropped("1");
+        runPendingTasks(executor);
+        verify(task1, never()).run();
+        verify(task2, times(1)).run();
+        verify(task3, times(1)).run();
+        assertEquals(0, serialExecutor.size());
+    }
+
+    @Test
+    public void testExecuteDropNewest() {
+        final Executor executor = mock(Executor.class);
+        final SerialExecutor.DropListener dropListener = mock(SerialExecutor.DropListener.class);
+        final SerialExecutor serialExecutor =
+                new SerialExecutor(executor, 2, SerialExecutor.OVERFLOW_DROP_NEWEST, dropListener);
+        final Runnable task1 = mock(Runnable.class);
+        final Runnable task2 = mock(Runnable.class);
+        final Runnable task3 = mock(Runnable.class);
+        serialExecutor.execute("1", task1);
+        serialExecutor.execute("2", task2);
+        serialExecutor.execute("3", task3);
+        verify(dropListener, times(1)).onDropped("3");
+        runPendingTasks(executor);
+        verify(task1, times(1)).run();
+        verify(task2, times(1)).run();
+        verify(task3, never()).run();
+    }
+
+    @Test
+    public void testExecuteKeepLatest() {
+        final Executor executor = mock(Executor.class);
+        final SerialExecutor.DropListener dropListener = mock(SerialExecutor.DropListener.class);
+        final SerialExecutor serialExecutor =
+                new SerialExecutor(executor, 2, SerialExecutor.OVERFLOW_KEEP_LATEST, dropListener);
+        final List<String> results = new ArrayList<>();
+        serialExecutor.execute("a", () -> results.add("a1"));
+        serialExecutor.execute("b", () -> results.add("b1"));
+        serialExecutor.execute("a", () -> results.add("a2"));
+        serialExecutor.execute("c", () -> results.add("c1"));
+        verify(dropListener, times(2)).onDropped("a"); // Replaced, then dropped as the oldest
+        runPendingTasks(executor);
+        assertEquals(List.of("b1", "c1"), results);
+    }
+
+    @Test
+    public void testExecuteKeepLatestWithoutKey() {
+        final Executor executor = mock(Executor.class);
+        final SerialExecutor serialExecutor = new SerialExecutor(executor, 2, SerialExecutor.OVERFLOW_KEEP_LATEST, null);
+        final List<String> results = new ArrayList<>();
+        serialExecutor.execute(() -> results.add("1"));
+        serialExecutor.execute(() -> results.add("2"));
+        runPendingTasks(executor);
+        assertEquals(List.of("1", "2"), results);
+    }
+
+    @Test
+    public void testExecuteBlock() throws InterruptedException {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final SerialExecutor serialExecutor = new SerialExecutor(pool, 1, SerialExecutor.OVERFLOW_BLOCK, null);
+            final CountDownLatch started = new CountDownLatch(1);
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(3);
+            serialExecutor.execute(() -> {
+                started.countDown();
+                awaitQuietly(blocked);
+                done.countDown();
+            });
+            assertTrue(started.await(DELAY_MS, TimeUnit.MILLISECONDS));
+            serialExecutor.execute(done::countDown); // Fills the queue
+            final Thread thread = new Thread(() -> serialExecutor.execute(done::countDown));
+            thread.start();
+            thread.join(DELAY_MS);
+            assertTrue(thread.isAlive()); // Blocked until there is room
+            blocked.countDown();
+            thread.join(DELAY_MS);
+            assertFalse(thread.isAlive());
+            assertTrue(done.await(DELAY_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecuteBlockFromTask() throws InterruptedException {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final SerialExecutor serialExecutor = new SerialExecutor(pool, 1, SerialExecutor.OVERFLOW_BLOCK, null);
+            final CountDownLatch done = new CountDownLatch(3);
+            serialExecutor.execute(() -> {
+                serialExecutor.execute(done::countDown);
+                serialExecutor.execute(done::countDown); // Must not block the running task
+                done.countDown();
+            });
+            assertTrue(done.await(DELAY_MS, TimeUnit.MILLISECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(@NonNull CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
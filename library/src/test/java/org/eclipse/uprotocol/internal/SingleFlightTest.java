@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+@RunWith(AndroidJUnit4.class)
+public class SingleFlightTest extends TestBase {
+    private final SingleFlight mSingleFlight = new SingleFlight();
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<CompletionStage<String>> newMockCall(CompletableFuture<String> future) {
+        final Supplier<CompletionStage<String>> call = mock(Supplier.class);
+        doReturn(future).when(call).get();
+        return call;
+    }
+
+    @Test
+    public void testExecuteCoalesced() throws Exception {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final Supplier<CompletionStage<String>> call = newMockCall(future);
+        final CompletableFuture<String> result1 = mSingleFlight.execute("key", call).toCompletableFuture();
+        final CompletableFuture<String> result2 = mSingleFlight.execute("key", call).toCompletableFuture();
+        verify(call, times(1)).get();
+        assertEquals(1, mSingleFlight.size());
+        future.complete("result");
+        assertEquals("result", result1.get());
+        assertEquals("result", result2.get());
+        assertEquals(0, mSingleFlight.size());
+    }
+
+    @Test
+    public void testExecuteDifferentKeys() {
+        final Supplier<CompletionStage<String>> call = newMockCall(new CompletableFuture<>());
+        mSingleFlight.execute("key1", call);
+        mSingleFlight.execute("key2", call);
+        verify(call, times(2)).get();
+        assertEquals(2, mSingleFlight.size());
+    }
+
+    @Test
+    public void testExecuteAfterCompletion() {
+        final Supplier<CompletionStage<String>> call = newMockCall(CompletableFuture.completedFuture("result"));
+        mSingleFlight.execute("key", call);
+        mSingleFlight.execute("key", call);
+        verify(call, times(2)).get();
+        assertEquals(0, mSingleFlight.size());
+    }
+
+    @Test
+    public void testExecuteFailure() {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final Supplier<CompletionStage<String>> call = newMockCall(future);
+        final CompletableFuture<String> result1 = mSingleFlight.execute("key", call).toCompletableFuture();
+        final CompletableFuture<String> result2 = mSingleFlight.execute("key", call).toCompletableFuture();
+        final Exception exception = new IllegalStateException();
+        future.completeExceptionally(exception);
+        assertEquals(exception, assertThrows(ExecutionException.class, result1::get).getCause());
+        assertEquals(exception, assertThrows(ExecutionException.class, result2::get).getCause());
+        assertEquals(0, mSingleFlight.size());
+    }
+
+    @Test
+    public void testExecuteThrowing() {
+        final Exception exception = new IllegalStateException();
+        @SuppressWarnings("unchecked")
+        final Supplier<CompletionStage<String>> call = mock(Supplier.class);
+        doThrow(exception).when(call).get();
+        final CompletableFuture<String> result = mSingleFlight.execute("key", call).toCompletableFuture();
+        assertEquals(exception, assertThrows(ExecutionException.class, result::get).getCause());
+        assertEquals(0, mSingleFlight.size());
+    }
+
+    @Test
+    public void testExecuteResultIsolated() throws Exception {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        final Supplier<CompletionStage<String>> call = newMockCall(future);
+        final CompletableFuture<String> result1 = mSingleFlight.execute("key", call).toCompletableFuture();
+        final CompletableFuture<String> result2 = mSingleFlight.execute("key", call).toCompletableFuture();
+        assertTrue(result1.cancel(false));
+        assertFalse(result2.isDone());
+        future.complete("result");
+        assertEquals("result", result2.get());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.eclipse.uprotocol.TestBase;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RunWith(AndroidJUnit4.class)
+public class TimeoutSchedulerTest extends TestBase {
+    private static final long TICK_MS = 5;
+
+    private final TimeoutScheduler mScheduler = new TimeoutScheduler("test", TICK_MS, TimeUnit.MILLISECONDS, 8);
+
+    @After
+    public void tearDown() {
+        mScheduler.shutdown();
+    }
+
+    @Test
+    public void testConstructorWithInvalidArgument() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeoutScheduler("test", 0, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new TimeoutScheduler("test", TICK_MS, TimeUnit.MILLISECONDS, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimeoutScheduler("test", TICK_MS, TimeUnit.MILLISECONDS, 6));
+    }
+
+    @Test
+    public void testSchedule() {
+        final Runnable task = mock(Runnable.class);
+        mScheduler.schedule(task, 10, TimeUnit.MILLISECONDS);
+        assertEquals(1, mScheduler.size());
+        verify(task, timeout(DELAY_MS).times(1)).run();
+        assertEquals(0, mScheduler.size());
+    }
+
+    @Test
+    public void testScheduleNotExpiredEarly() throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        mScheduler.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(DELAY_MS * 2, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testScheduleLongerThanWheel() {
+        // 8 slots of 5ms, the timeout goes around the wheel several times
+        final Runnable task = mock(Runnable.class);
+        mScheduler.schedule(task, 90, TimeUnit.MILLISECONDS);
+        verify(task, after(60).never()).run();
+        verify(task, timeout(DELAY_MS).times(1)).run();
+    }
+
+    @Test
+    public void testScheduleAfterIdle() throws InterruptedException {
+        final Runnable task1 = mock(Runnable.class);
+        final Runnable task2 = mock(Runnable.class);
+        mScheduler.schedule(task1, 0, TimeUnit.MILLISECONDS);
+        verify(task1, timeout(DELAY_MS).times(1)).run();
+        Thread.sleep(DELAY_MS);
+        mScheduler.schedule(task2, 20, TimeUnit.MILLISECONDS);
+        verify(task2, after(10).never()).run();
+        verify(task2, timeout(DELAY_MS).times(1)).run();
+    }
+
+    @Test
+    public void testScheduleLongAfterConstruction() {
+        final AtomicLong clock = new AtomicLong();
+        final TimeoutScheduler scheduler = new TimeoutScheduler("test", TICK_MS, TimeUnit.MILLISECONDS, 8, clock::get);
+        try {
+            final Runnable task = mock(Runnable.class);
+            clock.set(TimeUnit.MINUTES.toNanos(10));
+            scheduler.schedule(task, 0, TimeUnit.MILLISECONDS);
+            // Ticks passed before the first timeout are skipped instead of being run one by one
+            assertEquals(TimeUnit.MINUTES.toMillis(10) / TICK_MS, scheduler.getTick());
+            verify(task, after(TICK_MS * 4).never()).run();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TICK_MS));
+            verify(task, timeout(DELAY_MS).times(1)).run();
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdown() {
+        final Runnable task = mock(Runnable.class);
+        final TimeoutScheduler.Timeout timeout = mScheduler.schedule(task, 20, TimeUnit.MILLISECONDS);
+        assertTrue(mScheduler.isRunning());
+        mScheduler.shutdown();
+        assertFalse(mScheduler.isRunning());
+        assertEquals(0, mScheduler.size());
+        assertFalse(timeout.cancel());
+        verify(task, after(DELAY_MS).never()).run();
+    }
+
+    @Test
+    public void testScheduleAfterShutdown() {
+        final Runnable task = mock(Runnable.class);
+        mScheduler.schedule(mock(Runnable.class), 20, TimeUnit.MILLISECONDS);
+        mScheduler.shutdown();
+        mScheduler.schedule(task, 0, TimeUnit.MILLISECONDS);
+        assertTrue(mScheduler.isRunning());
+        verify(task, timeout(DELAY_MS).times(1)).run();
+    }
+
+    @Test
+    public void testCancel() {
+        final Runnable task1 = mock(Runnable.class);
+        final Runnable task2 = mock(Runnable.class);
+        final TimeoutScheduler.Timeout timeout1 = mScheduler.schedule(task1, 20, TimeUnit.MILLISECONDS);
+        mScheduler.schedule(task2, 20, TimeUnit.MILLISECONDS);
+        assertTrue(timeout1.cancel());
+        assertFalse(timeout1.cancel());
+        assertEquals(1, mScheduler.size());
+        verify(task2, timeout(DELAY_MS).times(1)).run();
+        verify(task1, never()).run();
+    }
+
+    @Test
+    public void testCancelExpired() {
+        final Runnable task = mock(Runnable.class);
+        final TimeoutScheduler.Timeout timeout = mScheduler.schedule(task, 0, TimeUnit.MILLISECONDS);
+        verify(task, timeout(DELAY_MS).times(1)).run();
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void testScheduleFailingTask() {
+        final Runnable task1 = mock(Runnable.class);
+        final Runnable task2 = mock(Runnable.class);
+        doThrow(new RuntimeException()).when(task1).run();
+        mScheduler.schedule(task1, 0, TimeUnit.MILLISECONDS);
+        verify(task1, timeout(DELAY_MS).times(1)).run();
+        mScheduler.schedule(task2, 0, TimeUnit.MILLISECONDS);
+        verify(task2, timeout(DELAY_MS).times(1)).run();
+    }
+
+    @Test
+    public void testScheduleMany() throws InterruptedException {
+        final int count = 10_000;
+        final CountDownLatch latch = new CountDownLatch(count / 2);
+        final TimeoutScheduler.Timeout[] timeouts = new TimeoutScheduler.Timeout[count];
+        for (int i = 0; i < count; i++) {
+            timeouts[i] = mScheduler.schedule(latch::countDown, 50 + i % 50, TimeUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(timeouts[i].cancel());
+        }
+        assertTrue(latch.await(DELAY_MS * 3, TimeUnit.MILLISECONDS));
+        assertEquals(0, mScheduler.size());
+    }
+}
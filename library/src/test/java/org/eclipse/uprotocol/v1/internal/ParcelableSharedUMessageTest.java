@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2024 General Motors GTO LLC
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * SPDX-FileType: SOURCE
+ * SPDX-FileCopyrightText: 2023 General Motors GTO LLC
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.eclipse.uprotocol.v1.internal;
+
+import static android.os.Parcelable.CONTENTS_FILE_DESCRIPTOR;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.os.Parcel;
+import android.os.SharedMemory;
+import android.system.ErrnoException;
+import android.system.OsConstants;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.protobuf.ByteString;
+
+import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UPayload;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+
+@RunWith(AndroidJUnit4.class)
+public class ParcelableSharedUMessageTest extends TestBase {
+    private static final int SIZE = 4096;
+    private static final UMessage MESSAGE = buildMessageWithPayloadSize(SIZE);
+
+    private Parcel mParcel;
+
+    @Before
+    public void setUp() {
+        mParcel = Parcel.obtain();
+    }
+
+    @After
+    public void tearDown() {
+        mParcel.recycle();
+    }
+
+    private static @NonNull UMessage buildMessageWithPayloadSize(int size) {
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return buildMessage(UPayload.newBuilder(PAYLOAD).setValue(ByteString.copyFrom(data)).build(), ATTRIBUTES);
+    }
+
+    private void checkWriteAndRead(@NonNull UMessage message) throws ErrnoException {
+        try (ParcelableSharedUMessage parcelable = new ParcelableSharedUMessage(message)) {
+            parcelable.writeToParcel(mParcel, 0);
+        }
+        mParcel.setDataPosition(0);
+        final UMessage actualMessage = ParcelableSharedUMessage.CREATOR.createFromParcel(mParcel).getWrapped();
+        assertEquals(message, actualMessage);
+        assertEquals(mParcel.dataSize(), mParcel.dataPosition());
+    }
+
+    @Test
+    public void testConstructor() throws ErrnoException {
+        try (ParcelableSharedUMessage parcelable = new ParcelableSharedUMessage(MESSAGE)) {
+            assertEquals(MESSAGE, parcelable.getWrapped());
+        }
+    }
+
+    @Test
+    public void testConstructorClosesSharedMemoryOnFailure() throws ErrnoException {
+        final SharedMemory sharedMemory = mock(SharedMemory.class);
+        doThrow(new ErrnoException("mmap", OsConstants.ENOMEM)).when(sharedMemory).mapReadWrite();
+        try (MockedStatic<SharedMemory> mockedSharedMemory = mockStatic(SharedMemory.class)) {
+            mockedSharedMemory.when(() -> SharedMemory.create(any(), anyInt())).thenReturn(sharedMemory);
+            assertThrows(ErrnoException.class, () -> new ParcelableSharedUMessage(MESSAGE));
+        }
+        verify(sharedMemory, times(1)).close();
+    }
+
+    @Test
+    public void testNewArray() {
+        final ParcelableSharedUMessage[] array = ParcelableSharedUMessage.CREATOR.newArray(2);
+        assertEquals(2, array.length);
+    }
+
+    @Test
+    public void testCreateFromParcel() throws ErrnoException {
+        checkWriteAndRead(MESSAGE);
+    }
+
+    @Test
+    public void testCreateFromParcelEmptyValue() throws ErrnoException {
+        checkWriteAndRead(buildMessageWithPayloadSize(0));
+    }
+
+    @Test
+    public void testCreateFromParcelLargePayload() throws ErrnoException {
+        checkWriteAndRead(buildMessageWithPayloadSize(4 * 1024 * 1024));
+    }
+
+    @Test
+    public void testCreateFromParcelPayloadIsReadOnly() throws ErrnoException {
+        try (ParcelableSharedUMessage parcelable = new ParcelableSharedUMessage(MESSAGE)) {
+            parcelable.writeToParcel(mParcel, 0);
+        }
+        mParcel.setDataPosition(0);
+        final ByteString value = ParcelableSharedUMessage.CREATOR.createFromParcel(mParcel)
+                .getWrapped().getPayload().getValue();
+        assertTrue(value.asReadOnlyByteBuffer().isReadOnly());
+    }
+
+    @Test
+    public void testWriteToParcelReceived() throws ErrnoException {
+        try (ParcelableSharedUMessage parcelable = new ParcelableSharedUMessage(MESSAGE)) {
+            parcelable.writeToParcel(mParcel, 0);
+        }
+        mParcel.setDataPosition(0);
+        final ParcelableSharedUMessage parcelable = ParcelableSharedUMessage.CREATOR.createFromParcel(mParcel);
+        final Parcel parcel = Parcel.obtain();
+        try {
+            assertThrows(IllegalStateException.class, () -> parcelable.writeToParcel(parcel, 0));
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testIsShareable() {
+        assertTrue(ParcelableSharedUMessage.isShareable(MESSAGE, SIZE));
+        assertFalse(ParcelableSharedUMessage.isShareable(MESSAGE, SIZE + 1));
+        assertFalse(ParcelableSharedUMessage.isShareable(MESSAGE, 0));
+        assertFalse(ParcelableSharedUMessage.isShareable(UMessage.newBuilder(MESSAGE).clearPayload().build(), 1));
+        assertFalse(ParcelableSharedUMessage.isShareable(null, SIZE));
+    }
+
+    @Test
+    public void testDescribeContents() throws ErrnoException {
+        try (ParcelableSharedUMessage parcelable = new ParcelableSharedUMessage(MESSAGE)) {
+            assertEquals(CONTENTS_FILE_DESCRIPTOR, parcelable.describeContents());
+        }
+    }
+}
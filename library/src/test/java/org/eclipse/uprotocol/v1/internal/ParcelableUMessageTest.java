@@ -23,20 +23,29 @@
  */
 package org.eclipse.uprotocol.v1.internal;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 
+import android.os.BadParcelableException;
 import android.os.Parcel;
 
 import androidx.annotation.NonNull;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import com.google.protobuf.ByteString;
+
 import org.eclipse.uprotocol.TestBase;
+import org.eclipse.uprotocol.v1.UAttributes;
 import org.eclipse.uprotocol.v1.UMessage;
+import org.eclipse.uprotocol.v1.UPayload;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.List;
+
 @RunWith(AndroidJUnit4.class)
 public class ParcelableUMessageTest extends TestBase {
     private static final UMessage MESSAGE = buildMessage(PAYLOAD, ATTRIBUTES);
@@ -53,6 +62,16 @@ public class ParcelableUMessageTest extends TestBase {
         mParcel.recycle();
     }
 
+    private static @NonNull UMessage buildMessageWithPayloadSize(int size) {
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return UMessage.newBuilder(MESSAGE)
+                .setPayload(UPayload.newBuilder().setValue(ByteString.copyFrom(data)))
+                .build();
+    }
+
     private void checkWriteAndRead(@NonNull UMessage message) {
         final int start = mParcel.dataPosition();
         new ParcelableUMessage(message).writeToParcel(mParcel, 0);
@@ -90,4 +109,91 @@ public class ParcelableUMessageTest extends TestBase {
     public void testCreateFromParcelEmpty() {
         checkWriteAndRead(UMessage.getDefaultInstance());
     }
+
+    @Test
+    public void testCreateFromParcelLargePayload() {
+        checkWriteAndRead(buildMessageWithPayloadSize(100 * 1024));
+    }
+
+    @Test
+    public void testCreateFromParcelVariousPayloadSizes() {
+        List.of(10, 2000, 10, 50_000, 100).forEach(size -> checkWriteAndRead(buildMessageWithPayloadSize(size)));
+    }
+
+    @Test
+    public void testCreateFromParcelLazy() {
+        new ParcelableUMessage(MESSAGE).writeToParcel(mParcel, 0);
+        mParcel.setDataPosition(0);
+        final ParcelableUMessage message = ParcelableUMessage.CREATOR.createFromParcel(mParcel);
+        assertEquals(mParcel.dataSize(), mParcel.dataPosition());
+        assertEquals(ATTRIBUTES, message.getAttributes());
+        assertEquals(MESSAGE, message.getWrapped());
+        assertEquals(ATTRIBUTES, message.getAttributes());
+    }
+
+    @Test
+    public void testGetSerializedSize() {
+        assertEquals(MESSAGE.getSerializedSize(), new ParcelableUMessage(MESSAGE).getSerializedSize());
+    }
+
+    @Test
+    public void testGetSerializedSizeLazy() {
+        new ParcelableUMessage(MESSAGE).writeToParcel(mParcel, 0);
+        mParcel.setDataPosition(0);
+        final ParcelableUMessage message = ParcelableUMessage.CREATOR.createFromParcel(mParcel);
+        assertEquals(MESSAGE.getSerializedSize(), message.getSerializedSize());
+        assertEquals(MESSAGE, message.getWrapped());
+        assertEquals(MESSAGE.getSerializedSize(), message.getSerializedSize());
+    }
+
+    @Test
+    public void testCreateFromParcelLazyWrongData() {
+        mParcel.writeInt(3);
+        mParcel.writeByteArray(new byte[] { 1, 2, 3 });
+        mParcel.setDataPosition(0);
+        final ParcelableUMessage message = ParcelableUMessage.CREATOR.createFromParcel(mParcel);
+        assertThrows(BadParcelableException.class, message::getAttributes);
+        assertThrows(BadParcelableException.class, message::getWrapped);
+    }
+
+    @Test
+    public void testGetAttributes() {
+        assertEquals(ATTRIBUTES, new ParcelableUMessage(MESSAGE).getAttributes());
+    }
+
+    @Test
+    public void testGetAttributesWithoutAttributes() {
+        new ParcelableUMessage(UMessage.newBuilder(MESSAGE).clearAttributes().build()).writeToParcel(mParcel, 0);
+        mParcel.setDataPosition(0);
+        assertEquals(UAttributes.getDefaultInstance(),
+                ParcelableUMessage.CREATOR.createFromParcel(mParcel).getAttributes());
+    }
+
+    @Test
+    public void testWriteToParcelNotParsed() {
+        final byte[] data = MESSAGE.toByteArray();
+        new ParcelableUMessage(MESSAGE).writeToParcel(mParcel, 0);
+        mParcel.setDataPosition(0);
+        final ParcelableUMessage message = ParcelableUMessage.CREATOR.createFromParcel(mParcel);
+        final Parcel parcel = Parcel.obtain();
+        try {
+            message.writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            assertEquals(data.length, parcel.readInt());
+            final byte[] actualData = new byte[data.length];
+            parcel.readByteArray(actualData);
+            assertArrayEquals(data, actualData);
+        } finally {
+            parcel.recycle();
+        }
+    }
+
+    @Test
+    public void testEqualsNotParsed() {
+        new ParcelableUMessage(MESSAGE).writeToParcel(mParcel, 0);
+        mParcel.setDataPosition(0);
+        final ParcelableUMessage message = ParcelableUMessage.CREATOR.createFromParcel(mParcel);
+        assertEquals(new ParcelableUMessage(MESSAGE), message);
+        assertEquals(new ParcelableUMessage(MESSAGE).hashCode(), message.hashCode());
+    }
 }